@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blackrook.small.annotation.Controller;
+import com.blackrook.small.annotation.controller.EntryPath;
+
+/**
+ * Measures how long a burst of requests to a blocking controller takes to finish, through {@link SmallServlet},
+ * with requests handled on a fixed pool of "container" threads (the default) or handed off to dispatch threads 
+ * (see {@link SmallConfiguration#useVirtualThreads()}).
+ * In the default mode, the burst takes about (requests / container threads) times the blocking time.
+ * The dispatch threads are virtual threads on Java 21 or higher, and pooled threads before that.
+ * @author Matthew Tropiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchModeBenchmark
+{
+	/** Threads in the "container" pool. */
+	private static final int CONTAINER_THREADS = 8;
+	/** Requests per burst. */
+	private static final int REQUESTS = 256;
+	/** How long each controller call blocks, in milliseconds. */
+	private static final long BLOCK_MILLIS = 5L;
+	
+	@Controller
+	public static class BlockingController
+	{
+		@EntryPath("block")
+		public void block() throws InterruptedException
+		{
+			// Stands in for a call to a database or another service.
+			Thread.sleep(BLOCK_MILLIS);
+		}
+	}
+
+	/**
+	 * The configuration, which only sets the dispatch mode.
+	 */
+	private static class Configuration implements SmallConfiguration
+	{
+		private boolean useVirtualThreads;
+		
+		private Configuration(boolean useVirtualThreads)
+		{
+			this.useVirtualThreads = useVirtualThreads;
+		}
+
+		@Override
+		public int getServerPort()
+		{
+			return 8080;
+		}
+
+		@Override
+		public Integer getSecureServerPort()
+		{
+			return null;
+		}
+
+		@Override
+		public String getContextPath()
+		{
+			return "";
+		}
+
+		@Override
+		public String getTempPath()
+		{
+			return null;
+		}
+
+		@Override
+		public String[] getServletPaths()
+		{
+			return new String[]{"/"};
+		}
+
+		@Override
+		public String[] getApplicationPackageRoots()
+		{
+			return null;
+		}
+
+		@Override
+		public boolean allowOptions()
+		{
+			return false;
+		}
+
+		@Override
+		public boolean allowTrace()
+		{
+			return false;
+		}
+
+		@Override
+		public boolean allowWebSockets()
+		{
+			return false;
+		}
+
+		@Override
+		public boolean autoParseMultipart()
+		{
+			return false;
+		}
+
+		@Override
+		public boolean useVirtualThreads()
+		{
+			return useVirtualThreads;
+		}
+
+		@Override
+		public <T> T getAttribute(String attributeName, T def)
+		{
+			return def;
+		}
+	}
+
+	@Param({"false", "true"})
+	private boolean useVirtualThreads;
+	
+	private SmallEnvironment environment;
+	private SmallServlet servlet;
+	private ExecutorService containerThreads;
+	private HttpServletResponse response;
+	
+	@Setup(Level.Trial)
+	public void setup() throws ServletException
+	{
+		final SmallConfiguration configuration = new Configuration(useVirtualThreads);
+		final ServletContext context = proxy(ServletContext.class, (name, args) -> 
+		{
+			if (name.equals("getAttribute") && SmallConstants.SMALL_APPLICATION_CONFIGURATION_ATTRIBUTE.equals(args[0]))
+				return configuration;
+			else if (name.equals("getAttribute") && SmallConstants.SMALL_APPLICATION_ENVIRONMENT_ATTRIBUTE.equals(args[0]))
+				return environment;
+			return null;
+		});
+		
+		environment = new SmallEnvironment();
+		environment.init(context, null, new File(System.getProperty("java.io.tmpdir")));
+		environment.addController(BlockingController.class);
+		
+		servlet = new SmallServlet();
+		servlet.init(proxy(ServletConfig.class, (name, args) -> name.equals("getServletContext") ? context : null));
+		containerThreads = Executors.newFixedThreadPool(CONTAINER_THREADS);
+		response = proxy(HttpServletResponse.class, (name, args) -> null);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		containerThreads.shutdown();
+		servlet.destroy();
+	}
+
+	@Benchmark
+	public void burst() throws InterruptedException
+	{
+		final CountDownLatch done = new CountDownLatch(REQUESTS);
+		for (int i = 0; i < REQUESTS; i++)
+		{
+			containerThreads.execute(() ->
+			{
+				final boolean[] async = {false};
+				final AsyncContext asyncContext = proxy(AsyncContext.class, (name, args) -> 
+				{
+					if (name.equals("complete"))
+						done.countDown();
+					return null;
+				});
+				HttpServletRequest request = proxy(HttpServletRequest.class, (name, args) -> 
+				{
+					switch (name)
+					{
+						case "getMethod":
+							return "GET";
+						case "getRequestURI":
+							return "/block";
+						case "getContextPath":
+							return "";
+						case "isAsyncSupported":
+							return true;
+						case "isAsyncStarted":
+							return async[0];
+						case "startAsync":
+							async[0] = true;
+							return asyncContext;
+						default:
+							return null;
+					}
+				});
+				
+				servlet.service(request, response);
+				if (!async[0])
+					done.countDown();
+			});
+		}
+		done.await();
+	}
+	
+	@FunctionalInterface
+	private interface Handler
+	{
+		Object invoke(String methodName, Object[] args);
+	}
+	
+	/**
+	 * Creates a stand-in for a servlet API interface.
+	 * Methods that return primitives must be handled.
+	 */
+	private static <T> T proxy(Class<T> type, Handler handler)
+	{
+		return type.cast(Proxy.newProxyInstance(
+			DispatchModeBenchmark.class.getClassLoader(), 
+			new Class<?>[]{type}, 
+			(proxy, method, args) -> handler.invoke(method.getName(), args)
+		));
+	}
+	
+}
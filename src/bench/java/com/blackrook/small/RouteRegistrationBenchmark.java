@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blackrook.small.annotation.Controller;
+import com.blackrook.small.annotation.controller.Content;
+import com.blackrook.small.annotation.controller.EntryPath;
+import com.blackrook.small.annotation.controller.HTTPMethod;
+import com.blackrook.small.annotation.parameters.PathVariable;
+import com.blackrook.small.enums.RequestMethod;
+import com.blackrook.small.struct.URITrie;
+
+/**
+ * Measures controller route lookup throughput with and without another thread 
+ * adding and removing a controller as fast as it can.
+ * Each change builds and publishes a new route table, so lookups should not slow down (much) while it happens.
+ * The changing thread needs a core of its own for the two groups to be comparable - run this on 4 or more cores.
+ * @author Matthew Tropiano
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteRegistrationBenchmark
+{
+	private static final String[] PATHS = {
+		"api/users/1234", 
+		"api/users/1234/orders", 
+		"api/orders/5678/items", 
+		"api/status", 
+		"api/plugin/report/99", 
+		"api/missing/path",
+	};
+
+	@Controller
+	@EntryPath("api")
+	public static class ApiController
+	{
+		@EntryPath("users/@id:[0-9]+") @Content
+		public String user(@PathVariable("id") String id) { return id; }
+
+		@EntryPath("users/@id:[0-9]+/orders") @Content
+		public String userOrders(@PathVariable("id") String id) { return id; }
+
+		@EntryPath("users/@id:[0-9]+") @HTTPMethod.PUT @Content
+		public String putUser(@PathVariable("id") String id) { return id; }
+
+		@EntryPath("orders/@id:[0-9]+/items") @Content
+		public String orderItems(@PathVariable("id") String id) { return id; }
+
+		@EntryPath("status") @Content
+		public String status() { return "ok"; }
+	}
+
+	@Controller
+	@EntryPath("api/plugin")
+	public static class PluginController
+	{
+		@EntryPath("report/@id") @Content
+		public String report(@PathVariable("id") String id) { return id; }
+
+		@EntryPath("report/@id") @HTTPMethod.DELETE @Content
+		public String deleteReport(@PathVariable("id") String id) { return id; }
+	}
+
+	/** Per-thread position in the path list. */
+	@State(Scope.Thread)
+	public static class Cursor
+	{
+		private int index;
+		
+		private String next()
+		{
+			return PATHS[index = (index + 1) % PATHS.length];
+		}
+	}
+
+	private SmallEnvironment environment;
+		
+	@Setup
+	public void setup()
+	{
+		environment = new SmallEnvironment();
+		environment.addController(ApiController.class);
+	}
+	
+	private URITrie.Result<ControllerRoute> lookup(Cursor cursor)
+	{
+		return environment.getControllerRouteTable().getControllerRoute(RequestMethod.GET, cursor.next());
+	}
+	
+	@Benchmark
+	@Group("idle")
+	@GroupThreads(3)
+	public URITrie.Result<ControllerRoute> idleLookup(Cursor cursor)
+	{
+		return lookup(cursor);
+	}
+	
+	@Benchmark
+	@Group("registering")
+	@GroupThreads(3)
+	public URITrie.Result<ControllerRoute> registeringLookup(Cursor cursor)
+	{
+		return lookup(cursor);
+	}
+	
+	@Benchmark
+	@Group("registering")
+	@GroupThreads(1)
+	public boolean registeringChange()
+	{
+		if (environment.removeController(PluginController.class))
+			return false;
+		environment.addController(PluginController.class);
+		return true;
+	}
+	
+}
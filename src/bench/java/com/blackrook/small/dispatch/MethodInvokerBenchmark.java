@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.dispatch;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reflective and generated {@link MethodInvoker}s on entry methods with 0, 3, and 8 parameters.
+ * @author Matthew Tropiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodInvokerBenchmark
+{
+	/** Entry methods like a controller would have. */
+	public static class Target
+	{
+		public String none()
+		{
+			return "none";
+		}
+		
+		public String three(String name, int id, Object model)
+		{
+			return model != null ? name : null;
+		}
+		
+		public String eight(String a, String b, int c, long d, boolean e, Object f, Object g, String h)
+		{
+			return e ? a : h;
+		}
+	}
+
+	@Param({"0", "3", "8"})
+	public int parameters;
+	
+	private MethodInvoker reflective;
+	private MethodInvoker generated;
+	private Object[] args;
+	
+	@Setup
+	public void setup() throws NoSuchMethodException
+	{
+		Target target = new Target();
+		Method method;
+		switch (parameters)
+		{
+			case 0:
+				method = Target.class.getMethod("none");
+				args = new Object[0];
+				break;
+			case 3:
+				method = Target.class.getMethod("three", String.class, int.class, Object.class);
+				args = new Object[]{"name", 5, target};
+				break;
+			case 8:
+				method = Target.class.getMethod("eight", String.class, String.class, int.class, long.class, boolean.class, Object.class, Object.class, String.class);
+				args = new Object[]{"a", "b", 3, 4L, true, target, target, "h"};
+				break;
+			default:
+				throw new IllegalArgumentException("No method with " + parameters + " parameters.");
+		}
+		reflective = MethodInvokers.reflect(method, target);
+		if ((generated = MethodInvokers.generate(method, target)) == null)
+			throw new IllegalStateException("Could not generate an invoker for " + method);
+	}
+	
+	@Benchmark
+	public Object reflective() throws Throwable
+	{
+		return reflective.invoke(args);
+	}
+	
+	@Benchmark
+	public Object generated() throws Throwable
+	{
+		return generated.invoke(args);
+	}
+	
+}
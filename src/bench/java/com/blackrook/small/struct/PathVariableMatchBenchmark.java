@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.struct;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares path variable matching through {@link PathSegmentMatcher} against {@link Pattern},
+ * for single segments and for whole {@link URITrie} lookups.
+ * The "pattern" cases wrap the same expression in a non-capturing group, which the matcher does not support.
+ * @author Matthew Tropiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathVariableMatchBenchmark
+{
+	/** Common path variable shapes. */
+	public enum Shape
+	{
+		DIGITS("[0-9]+", "/orders/1234567890/items"),
+		UUID("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}", "/orders/123e4567-e89b-12d3-a456-426614174000/items"),
+		SLUG("[A-Za-z0-9_-]+", "/orders/summer_sale-2024-final/items");
+		
+		private final String regex;
+		private final String path;
+		
+		private Shape(String regex, String path)
+		{
+			this.regex = regex;
+			this.path = path;
+		}
+	}
+	
+	@Param
+	public Shape shape;
+	
+	private PathSegmentMatcher matcher;
+	private Pattern pattern;
+	private URITrie<String> matcherTrie;
+	private URITrie<String> patternTrie;
+	private String path;
+	private int segmentStart;
+	private int segmentEnd;
+	
+	@Setup
+	public void setup()
+	{
+		String wrappedRegex = "(?:" + shape.regex + ")";
+		matcher = PathSegmentMatcher.compile(shape.regex);
+		if (matcher == null || PathSegmentMatcher.compile(wrappedRegex) != null)
+			throw new IllegalStateException("Benchmark expressions are not set up as expected.");
+		pattern = Pattern.compile(wrappedRegex);
+
+		matcherTrie = new URITrie<>();
+		matcherTrie.add("orders/@id:" + shape.regex + "/items", "items");
+		patternTrie = new URITrie<>();
+		patternTrie.add("orders/@id:" + wrappedRegex + "/items", "items");
+		
+		path = shape.path;
+		segmentStart = path.indexOf('/', 1) + 1;
+		segmentEnd = path.indexOf('/', segmentStart);
+	}
+	
+	@Benchmark
+	public boolean segmentMatcher()
+	{
+		return matcher.matches(path, segmentStart, segmentEnd);
+	}
+	
+	@Benchmark
+	public boolean segmentPattern()
+	{
+		return pattern.matcher(path).region(segmentStart, segmentEnd).matches();
+	}
+	
+	@Benchmark
+	public URITrie.Result<String> resolveMatcher()
+	{
+		return matcherTrie.resolve(path);
+	}
+	
+	@Benchmark
+	public URITrie.Result<String> resolvePattern()
+	{
+		return patternTrie.resolve(path);
+	}
+	
+}
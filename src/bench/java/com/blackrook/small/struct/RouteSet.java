@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.struct;
+
+import java.util.Random;
+
+/**
+ * A generated set of route templates, plus request paths that hit and miss them.
+ * Routes are spread over a number of top-level groups so that they share prefixes, 
+ * and mix static, path variable, regex variable, and default ("*") routes.
+ * The same size and seed always generate the same set.
+ * @author Matthew Tropiano
+ */
+class RouteSet
+{
+	/** Route templates, as added to a trie. */
+	final String[] routes;
+	/** One path that resolves to each route, in the same order. */
+	final String[] hits;
+	/** Paths that resolve to nothing. */
+	final String[] misses;
+
+	/**
+	 * Generates a route set.
+	 * @param size the amount of routes.
+	 * @param seed the random seed.
+	 */
+	RouteSet(int size, long seed)
+	{
+		Random random = new Random(seed);
+		int groups = Math.max(1, (int)Math.sqrt(size));
+		this.routes = new String[size];
+		this.hits = new String[size];
+		this.misses = new String[size];
+		
+		for (int i = 0; i < size; i++)
+		{
+			String prefix = "api/g" + random.nextInt(groups) + "/r" + i;
+			int kind = random.nextInt(10);
+			if (kind < 4)
+			{
+				routes[i] = prefix + "/items/list";
+				hits[i] = "/" + prefix + "/items/list";
+				misses[i] = "/" + prefix + "/items/missing";
+			}
+			else if (kind < 7)
+			{
+				routes[i] = prefix + "/@id/detail";
+				hits[i] = "/" + prefix + "/v" + random.nextInt(100000) + "/detail";
+				misses[i] = "/" + prefix + "/v" + random.nextInt(100000) + "/missing";
+			}
+			else if (kind < 9)
+			{
+				routes[i] = prefix + "/@id:[0-9]+/orders";
+				hits[i] = "/" + prefix + "/" + random.nextInt(100000) + "/orders";
+				misses[i] = "/" + prefix + "/x" + random.nextInt(100000) + "/orders";
+			}
+			else
+			{
+				routes[i] = prefix + "/files/*";
+				hits[i] = "/" + prefix + "/files/css/site" + random.nextInt(100) + ".css";
+				misses[i] = "/" + prefix + "/nofiles/css/site" + random.nextInt(100) + ".css";
+			}
+		}
+	}
+
+	/**
+	 * Builds a trie of this set's routes, with each route's index as its value.
+	 * @return the new trie, compiled.
+	 */
+	URITrie<Integer> build()
+	{
+		URITrie<Integer> out = new URITrie<>();
+		for (int i = 0; i < routes.length; i++)
+			out.add(routes[i], i);
+		out.compile();
+		return out;
+	}
+
+	/**
+	 * Checks that every hit path resolves to its route and every miss path resolves to nothing.
+	 * @param trie the trie built from this set.
+	 * @throws IllegalStateException if not.
+	 */
+	void check(URITrie<Integer> trie)
+	{
+		for (int i = 0; i < hits.length; i++)
+		{
+			URITrie.Result<Integer> result = trie.resolve(hits[i]);
+			if (!result.hasValue() || result.getValue() != i)
+				throw new IllegalStateException("Path " + hits[i] + " did not resolve to route " + routes[i]);
+			if (trie.resolve(misses[i]).hasValue())
+				throw new IllegalStateException("Path " + misses[i] + " should not resolve.");
+		}
+	}
+	
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.struct;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Route table benchmarks over generated route sets of different sizes (see {@link RouteSet}):
+ * build time, search throughput for paths that are found and not found, and retained heap.
+ * <p>For allocation per search, run with the GC profiler, for example: 
+ * <code>ant bench -Dbench.includes=RouteTableBenchmark -Dbench.args="-prof gc"</code>.
+ * @author Matthew Tropiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteTableBenchmark
+{
+	private static final long SEED = 1234567L;
+
+	@Param({"10", "1000", "50000"})
+	public int routeCount;
+	
+	private RouteSet routeSet;
+	private URITrie<Integer> trie;
+	
+	/** Per-thread position in the path lists. */
+	@State(Scope.Thread)
+	public static class Cursor
+	{
+		private int index;
+		
+		private String next(String[] paths)
+		{
+			if (++index >= paths.length)
+				index = 0;
+			return paths[index];
+		}
+	}
+	
+	/** Heap counters, reported next to the benchmark score. */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Heap
+	{
+		/** Heap bytes still used by the last built trie, after garbage collection. */
+		public long retainedBytes;
+	}
+	
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		routeSet = new RouteSet(routeCount, SEED);
+		trie = routeSet.build();
+		routeSet.check(trie);
+	}
+	
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public URITrie<Integer> build()
+	{
+		return routeSet.build();
+	}
+	
+	@Benchmark
+	public URITrie.Result<Integer> resolveHit(Cursor cursor)
+	{
+		return trie.resolve(cursor.next(routeSet.hits));
+	}
+	
+	@Benchmark
+	public URITrie.Result<Integer> resolveMiss(Cursor cursor)
+	{
+		return trie.resolve(cursor.next(routeSet.misses));
+	}
+	
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 1)
+	@Measurement(iterations = 3)
+	public URITrie<Integer> retainedHeap(Heap heap)
+	{
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		long before = usedHeap(memory);
+		URITrie<Integer> out = routeSet.build();
+		heap.retainedBytes = usedHeap(memory) - before;
+		return out;
+	}
+	
+	private static long usedHeap(MemoryMXBean memory)
+	{
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+	
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blackrook.small.struct.Utils;
+
+/**
+ * Measures sending a file's contents to a response with {@link SmallResponseUtils#sendFileContents(HttpServletResponse, String, String, String, File, boolean)},
+ * against the relay through a heap buffer that it replaced.
+ * The response's output stream writes to a null device (<code>/dev/null</code>, if it exists), 
+ * and is either a plain stream, or also a channel (as some containers' are), which allows zero-copy transfers.
+ * @author Matthew Tropiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileTransferBenchmark
+{
+	/** The null device. */
+	private static final File NULL_DEVICE = new File("/dev/null");
+	
+	@Param({"16384", "1048576", "16777216"})
+	private int fileSize;
+
+	@Param({"false", "true"})
+	private boolean channelOutput;
+
+	private File file;
+	private FileChannel sink;
+	private HttpServletResponse response;
+
+	/**
+	 * An output stream that writes to a channel.
+	 */
+	private static class SinkOutputStream extends ServletOutputStream
+	{
+		protected final WritableByteChannel sink;
+
+		private SinkOutputStream(WritableByteChannel sink)
+		{
+			this.sink = sink;
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			write(new byte[]{(byte)b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+			while (buffer.hasRemaining())
+				sink.write(buffer);
+		}
+	}
+
+	/**
+	 * An output stream that is also a channel.
+	 */
+	private static class SinkChannelOutputStream extends SinkOutputStream implements WritableByteChannel
+	{
+		private SinkChannelOutputStream(WritableByteChannel sink)
+		{
+			super(sink);
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException
+		{
+			return sink.write(src);
+		}
+
+		@Override
+		public boolean isOpen()
+		{
+			return sink.isOpen();
+		}
+	}
+
+	/**
+	 * A channel that discards what is written to it, if there is no null device.
+	 */
+	private static class DiscardChannel implements WritableByteChannel
+	{
+		@Override
+		public int write(ByteBuffer src)
+		{
+			int out = src.remaining();
+			src.position(src.limit());
+			return out;
+		}
+
+		@Override
+		public boolean isOpen()
+		{
+			return true;
+		}
+
+		@Override
+		public void close()
+		{
+			// Nothing to close.
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		byte[] data = new byte[fileSize];
+		new Random(fileSize).nextBytes(data);
+		file = File.createTempFile("small-bench", ".bin");
+		Files.write(file.toPath(), data);
+
+		WritableByteChannel channel;
+		if (NULL_DEVICE.exists())
+			channel = sink = FileChannel.open(Paths.get(NULL_DEVICE.getPath()), StandardOpenOption.WRITE);
+		else
+			channel = new DiscardChannel();
+		
+		final ServletOutputStream out = channelOutput ? new SinkChannelOutputStream(channel) : new SinkOutputStream(channel);
+		response = (HttpServletResponse)Proxy.newProxyInstance(
+			FileTransferBenchmark.class.getClassLoader(), 
+			new Class<?>[]{HttpServletResponse.class}, 
+			(proxy, method, args) -> method.getName().equals("getOutputStream") ? out : null
+		);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException
+	{
+		Utils.close(sink);
+		file.delete();
+	}
+
+	/**
+	 * The file relay that was used before (what <code>sendData</code> does with an input stream).
+	 */
+	@Benchmark
+	public void relay() throws IOException
+	{
+		OutputStream out = response.getOutputStream();
+		try (InputStream in = new FileInputStream(file))
+		{
+			long length = file.length();
+			while (length > 0)
+				length -= Utils.relay(in, out, 32768, length > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)length);
+		}
+	}
+
+	@Benchmark
+	public void transfer()
+	{
+		SmallResponseUtils.sendFileContents(response, null, null, null, file, false);
+	}
+
+	@Benchmark
+	public void mapped()
+	{
+		SmallResponseUtils.sendFileContents(response, null, null, null, file, true);
+	}
+
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small;
+
+import java.lang.reflect.Method;
+
+import com.blackrook.small.dispatch.filter.FilterComponent;
+import com.blackrook.small.dispatch.filter.FilterEntryPoint;
+import com.blackrook.small.dispatch.filter.FilterExitPoint;
+import com.blackrook.small.exception.SmallFrameworkSetupException;
+
+/**
+ * A controller entry point's filter chain, resolved to filter components.
+ * Filters without an entry method are left out of the forward pass, and filters 
+ * without an exit method are left out of the backward pass, but each pass
+ * keeps the position of each filter in the full chain.
+ * @author Matthew Tropiano
+ */
+final class ControllerFilterChain
+{
+	/** The chain with no filters. */
+	static final ControllerFilterChain EMPTY = new ControllerFilterChain(new FilterComponent[0]);
+	
+	/** All of the filters in the chain, in chain order. */
+	private FilterComponent[] filters;
+	/** Filter entry points, in chain order. */
+	private FilterEntryPoint[] entryPoints;
+	/** The positions in the chain of each filter entry point. */
+	private int[] entryPositions;
+	/** Filter exit points, in chain order. */
+	private FilterExitPoint[] exitPoints;
+	/** The positions in the chain of each filter exit point. */
+	private int[] exitPositions;
+	/** If true, a filter in the chain may read the cookie map. */
+	private boolean usesCookies;
+		
+	private ControllerFilterChain(FilterComponent[] filters)
+	{
+		int entryCount = 0;
+		int exitCount = 0;
+		for (int i = 0; i < filters.length; i++)
+		{
+			if (filters[i].getEntryMethod() != null)
+				entryCount++;
+			if (filters[i].getExitMethod() != null)
+				exitCount++;
+		}
+		
+		this.filters = filters;
+		this.entryPoints = new FilterEntryPoint[entryCount];
+		this.entryPositions = new int[entryCount];
+		this.exitPoints = new FilterExitPoint[exitCount];
+		this.exitPositions = new int[exitCount];
+		this.usesCookies = false;
+				
+		int e = 0;
+		int x = 0;
+		for (int i = 0; i < filters.length; i++)
+		{
+			if (filters[i].getEntryMethod() != null)
+			{
+				entryPoints[e] = filters[i].getEntryMethod();
+				entryPositions[e++] = i;
+				usesCookies |= filters[i].getEntryMethod().usesCookies();
+			}
+			if (filters[i].getExitMethod() != null)
+			{
+				exitPoints[x] = filters[i].getExitMethod();
+				exitPositions[x++] = i;
+				usesCookies |= filters[i].getExitMethod().usesCookies();
+			}
+		}
+	}
+	
+	/**
+	 * Resolves a filter chain.
+	 * @param environment the environment to get the filter components from.
+	 * @param filterClasses the filter classes in the chain, in chain order.
+	 * @param method the entry method that the chain is for (for error reporting).
+	 * @return the resolved chain.
+	 * @throws SmallFrameworkSetupException if a filter class in the chain is not a filter component in the environment.
+	 */
+	static ControllerFilterChain resolve(SmallEnvironment environment, Class<?>[] filterClasses, Method method)
+	{
+		if (filterClasses.length == 0)
+			return EMPTY;
+		
+		FilterComponent[] filters = new FilterComponent[filterClasses.length];
+		for (int i = 0; i < filterClasses.length; i++)
+		{
+			if ((filters[i] = environment.getFilter(filterClasses[i])) == null)
+				throw new SmallFrameworkSetupException("Class "+filterClasses[i].getName()+" in the filter chain of "+method+" is not a filter component.");
+		}
+		return new ControllerFilterChain(filters);
+	}
+
+	/**
+	 * @return true if a filter entry or exit point in this chain may read the cookie map, false if not.
+	 * @see com.blackrook.small.dispatch.DispatchEntryPoint#usesCookies()
+	 */
+	boolean usesCookies()
+	{
+		return usesCookies;
+	}
+
+	/**
+	 * @return the amount of filters in the full chain.
+	 */
+	int getLength()
+	{
+		return filters.length;
+	}
+
+	/**
+	 * @return the filter entry points to call on the forward pass, in chain order.
+	 */
+	FilterEntryPoint[] getEntryPoints()
+	{
+		return entryPoints;
+	}
+
+	/**
+	 * Gets the position in the full chain of a filter entry point.
+	 * @param index the index into {@link #getEntryPoints()}.
+	 * @return the position in the chain.
+	 */
+	int getEntryPosition(int index)
+	{
+		return entryPositions[index];
+	}
+
+	/**
+	 * @return the filter exit points to call on the backward pass, in chain order.
+	 */
+	FilterExitPoint[] getExitPoints()
+	{
+		return exitPoints;
+	}
+
+	/**
+	 * Gets the position in the full chain of a filter exit point.
+	 * @param index the index into {@link #getExitPoints()}.
+	 * @return the position in the chain.
+	 */
+	int getExitPosition(int index)
+	{
+		return exitPositions[index];
+	}
+
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small;
+
+import com.blackrook.small.dispatch.controller.ControllerEntryPoint;
+import com.blackrook.small.enums.RequestMethod;
+import com.blackrook.small.struct.PathVariableMap;
+import com.blackrook.small.struct.URITrie;
+
+/**
+ * A single routed path in the controller route table,
+ * holding the controller entry points for each request method.
+ * Routes are immutable - adding an entry point creates a new route.
+ * @author Matthew Tropiano
+ */
+final class ControllerRoute
+{
+	private static final RequestMethod[] REQUEST_METHODS = RequestMethod.values();
+
+	/** Entry points, indexed by request method ordinal. */
+	private ControllerEntryPoint[] entryPoints;
+	/** Resolved entry point filter chains, indexed by request method ordinal. */
+	private ControllerFilterChain[] filterChains;
+	/** Request methods with entry points, as bits (by ordinal). */
+	private int methodMask;
+	/** Methods to add to the "Allow" header after the routed ones. */
+	private String allowSuffix;
+	/** Precomputed "Allow" header value. */
+	private String allowHeader;
+
+	private ControllerRoute(ControllerEntryPoint[] entryPoints, ControllerFilterChain[] filterChains, String allowSuffix)
+	{
+		this.entryPoints = entryPoints;
+		this.filterChains = filterChains;
+		this.allowSuffix = allowSuffix;
+
+		int methodMask = 0;
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < entryPoints.length; i++)
+		{
+			if (entryPoints[i] == null)
+				continue;
+			methodMask |= getMethodMask(REQUEST_METHODS[i]);
+			sb.append(sb.length() > 0 ? ", " : "").append(REQUEST_METHODS[i].name());
+			if (REQUEST_METHODS[i] == RequestMethod.GET)
+				sb.append(", HEAD");
+		}
+		if (allowSuffix != null)
+			sb.append(sb.length() > 0 ? ", " : "").append(allowSuffix);
+
+		this.methodMask = methodMask;
+		this.allowHeader = sb.length() > 0 ? sb.toString() : null;
+	}
+
+	/**
+	 * Creates a new route with no entry points.
+	 * @param allowSuffix the methods to add to the end of the "Allow" header, if any (can be null).
+	 */
+	ControllerRoute(String allowSuffix)
+	{
+		this(new ControllerEntryPoint[REQUEST_METHODS.length], new ControllerFilterChain[REQUEST_METHODS.length], allowSuffix);
+	}
+
+	/**
+	 * Gets the bit for a request method in a method mask.
+	 * @param requestMethod the request method.
+	 * @return the corresponding bit.
+	 */
+	static int getMethodMask(RequestMethod requestMethod)
+	{
+		return 1 << requestMethod.ordinal();
+	}
+
+	/**
+	 * Creates a new route with this route's entry points plus a new one.
+	 * @param requestMethod the request method to add to.
+	 * @param entryPoint the entry point.
+	 * @param filterChain the entry point's resolved filter chain.
+	 * @return a new route.
+	 */
+	ControllerRoute add(RequestMethod requestMethod, ControllerEntryPoint entryPoint, ControllerFilterChain filterChain)
+	{
+		ControllerEntryPoint[] entryPoints = this.entryPoints.clone();
+		ControllerFilterChain[] filterChains = this.filterChains.clone();
+		entryPoints[requestMethod.ordinal()] = entryPoint;
+		filterChains[requestMethod.ordinal()] = filterChain;
+		return new ControllerRoute(entryPoints, filterChains, allowSuffix);
+	}
+
+	/**
+	 * Creates a new route with this route's entry points plus all of the entry points in another route.
+	 * Entry points in the other route replace the ones in this route.
+	 * @param route the other route.
+	 * @return a new route.
+	 */
+	ControllerRoute merge(ControllerRoute route)
+	{
+		ControllerEntryPoint[] entryPoints = this.entryPoints.clone();
+		ControllerFilterChain[] filterChains = this.filterChains.clone();
+		for (int i = 0; i < entryPoints.length; i++)
+		{
+			if (route.entryPoints[i] != null)
+			{
+				entryPoints[i] = route.entryPoints[i];
+				filterChains[i] = route.filterChains[i];
+			}
+		}
+		return new ControllerRoute(entryPoints, filterChains, allowSuffix);
+	}
+
+	/**
+	 * Gets the entry point for a request method.
+	 * @param requestMethod the request method.
+	 * @return the corresponding entry point, or null if none.
+	 */
+	ControllerEntryPoint getEntryPoint(RequestMethod requestMethod)
+	{
+		return entryPoints[requestMethod.ordinal()];
+	}
+
+	/**
+	 * Gets the resolved filter chain for the entry point for a request method.
+	 * @param requestMethod the request method.
+	 * @return the corresponding filter chain, or null if no entry point.
+	 */
+	ControllerFilterChain getFilterChain(RequestMethod requestMethod)
+	{
+		return filterChains[requestMethod.ordinal()];
+	}
+
+	/**
+	 * Gets the path variables for an entry point from a route table search result.
+	 * The map uses the entry point's path variable names, so the entry point can read them by slot.
+	 * @param requestMethod the request method.
+	 * @param result the result that found this route.
+	 * @return a map of path variables by the names the entry point uses, or null if no variables.
+	 */
+	PathVariableMap getPathVariables(RequestMethod requestMethod, URITrie.Result<ControllerRoute> result)
+	{
+		return result.getPathVariables(entryPoints[requestMethod.ordinal()].getPathVariableNames());
+	}
+
+	/**
+	 * @return the request methods with entry points on this route, as bits.
+	 * @see #getMethodMask(RequestMethod)
+	 */
+	int getMethodMask()
+	{
+		return methodMask;
+	}
+
+	/**
+	 * @return true if this route has no entry points, false otherwise.
+	 */
+	boolean isEmpty()
+	{
+		return methodMask == 0;
+	}
+
+	/**
+	 * @return the value for the "Allow" header for this route, or null for no header.
+	 */
+	String getAllowHeader()
+	{
+		return allowHeader;
+	}
+
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+
+import com.blackrook.small.annotation.controller.EntryPath;
+import com.blackrook.small.dispatch.controller.ControllerComponent;
+import com.blackrook.small.dispatch.controller.ControllerEntryPoint;
+import com.blackrook.small.enums.RequestMethod;
+import com.blackrook.small.enums.RouteCachePolicy;
+import com.blackrook.small.exception.SmallFrameworkSetupException;
+import com.blackrook.small.struct.BoundedCache;
+import com.blackrook.small.struct.URITrie;
+import com.blackrook.small.util.SmallUtils;
+
+/**
+ * The table of controller routes for a set of controllers, searched by path.
+ * Route tables are not changed once built - adding or removing controllers builds a new table,
+ * so a table can be searched from any number of threads without locking.
+ * @author Matthew Tropiano
+ */
+final class ControllerRouteTable
+{
+	/** The path to controller route trie (all methods). */
+	private URITrie<ControllerRoute> controllerRoutes;
+	/** The route with no entry points. */
+	private ControllerRoute emptyRoute;
+	/** The cache of path to route table search results that found a route. Null if not used. */
+	private BoundedCache<String, URITrie.Result<ControllerRoute>> routeCache;
+	/** The smaller cache of path to route table search results that found nothing, kept apart so that they do not push out found routes. Null if not used. */
+	private BoundedCache<String, URITrie.Result<ControllerRoute>> missCache;
+	/** Which routes can be cached. */
+	private RouteCachePolicy routeCachePolicy;
+
+	/**
+	 * Builds a new route table.
+	 * Entry points are added in controller order, and entry points for the same path and method replace earlier ones.
+	 * @param environment the environment to get the filters in the entry point filter chains from.
+	 * @param controllers the controllers to add the entry points of.
+	 * @param emptyRoute the route with no entry points, for unrouted paths.
+	 * @param routeCacheSize the maximum amount of cached search results that found a route (0 or less for no cache).
+	 * 		A quarter as many results that found nothing are also kept.
+	 * @param routeCachePolicy which search results can be cached.
+	 * @throws SmallFrameworkSetupException if a controller's entry point path could not be added, or a filter in a filter chain is missing.
+	 */
+	ControllerRouteTable(SmallEnvironment environment, Iterable<ControllerComponent> controllers, ControllerRoute emptyRoute, int routeCacheSize, RouteCachePolicy routeCachePolicy)
+	{
+		this.controllerRoutes = new URITrie<>((route) -> route.getMethodMask());
+		this.emptyRoute = emptyRoute;
+		this.routeCache = routeCacheSize > 0 ? new BoundedCache<>(routeCacheSize) : null;
+		this.missCache = routeCacheSize > 0 ? new BoundedCache<>(Math.max(routeCacheSize / 4, 1)) : null;
+		this.routeCachePolicy = routeCachePolicy != null ? routeCachePolicy : RouteCachePolicy.STATIC;
+		
+		// Entry points often share their controller's chain.
+		Map<Class<?>[], ControllerFilterChain> filterChains = new IdentityHashMap<>();
+		for (ControllerComponent controller : controllers)
+		{
+			Class<?> componentClass = controller.getInstance().getClass();
+			EntryPath entryPathAnno = componentClass.getAnnotation(EntryPath.class);
+			
+			String path = SmallUtils.trimSlashes(entryPathAnno != null ? entryPathAnno.value() + '/' : "");
+			for (ControllerEntryPoint entryPoint : controller.getEntryMethods())
+			{
+				String uri = path + '/' + SmallUtils.trimSlashes(entryPoint.getPath());
+				ControllerFilterChain filterChain;
+				if ((filterChain = filterChains.get(entryPoint.getFilterChain())) == null)
+					filterChains.put(entryPoint.getFilterChain(), filterChain = ControllerFilterChain.resolve(environment, entryPoint.getFilterChain(), entryPoint.getMethod()));
+				
+				ControllerRoute route = emptyRoute;
+				for (RequestMethod rm : entryPoint.getRequestMethods())
+					route = route.add(rm, entryPoint, filterChain);
+				
+				try {
+					controllerRoutes.add(uri, route, ControllerRoute::merge);
+				} catch (PatternSyntaxException e) {
+					throw new SmallFrameworkSetupException("Could not set up controller "+componentClass+", method "+entryPoint.getMethod(), e);
+				}
+			}
+		}
+		controllerRoutes.compile();
+	}
+
+	/**
+	 * Gets the controller route to use for a request method and URL path.
+	 * This searches the route tree once, and again only if a different branch of
+	 * the tree has the entry point for the method.
+	 * <p>If the resulting route has no entry point for the method, the path is either
+	 * not routed at all, or routed for other methods - see {@link #getAllowedRoute(String, URITrie.Result)}.
+	 * @param requestMethod the request method to use.
+	 * @param path the path to use.
+	 * @return a URI resolution result.
+	 */
+	URITrie.Result<ControllerRoute> getControllerRoute(RequestMethod requestMethod, String path)
+	{
+		URITrie.Result<ControllerRoute> result = resolveRoute(path);
+		int mask = ControllerRoute.getMethodMask(requestMethod);
+		if ((result.getBypassedGroups() & mask) != 0)
+		{
+			URITrie.Result<ControllerRoute> methodResult = controllerRoutes.resolve(path, mask);
+			if (methodResult.hasValue())
+				return methodResult;
+		}
+		return result;
+	}
+
+	/**
+	 * Searches the route table for a path, going through the route cache, if used.
+	 * Under {@link RouteCachePolicy#STATIC}, only searches that went through exact-match segments alone are cached,
+	 * so that paths that carry IDs, and misses under routes with path variables, do not flood the cache.
+	 * @param path the path to use.
+	 * @return a URI resolution result.
+	 */
+	private URITrie.Result<ControllerRoute> resolveRoute(String path)
+	{
+		if (routeCache == null)
+			return controllerRoutes.resolve(path);
+		
+		URITrie.Result<ControllerRoute> result;
+		if ((result = routeCache.get(path)) == null && (result = missCache.get(path)) == null)
+		{
+			result = controllerRoutes.resolve(path);
+			if (routeCachePolicy == RouteCachePolicy.ALL || result.isStaticPath())
+				(result.hasValue() ? routeCache : missCache).put(path, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the route that holds every request method that a path is routed for.
+	 * This is usually the route in the result, unless the search for it passed over
+	 * branches that other methods would have taken.
+	 * @param path the path to use.
+	 * @param result a result from {@link #getControllerRoute(RequestMethod, String)} for the same path.
+	 * @return the route, which has no entry points if the path is not routed at all.
+	 */
+	ControllerRoute getAllowedRoute(String path, URITrie.Result<ControllerRoute> result)
+	{
+		ControllerRoute out = result.hasValue() ? result.getValue() : emptyRoute;
+		int bypassed = result.getBypassedGroups() & ~out.getMethodMask();
+		for (RequestMethod requestMethod : RequestMethod.values())
+		{
+			URITrie.Result<ControllerRoute> methodResult;
+			if ((bypassed & ControllerRoute.getMethodMask(requestMethod)) != 0 
+				&& (methodResult = controllerRoutes.resolve(path, ControllerRoute.getMethodMask(requestMethod))).hasValue()
+			){
+				out = out.add(requestMethod, methodResult.getValue().getEntryPoint(requestMethod), methodResult.getValue().getFilterChain(requestMethod));
+			}
+		}
+		return out;
+	}
+
+}
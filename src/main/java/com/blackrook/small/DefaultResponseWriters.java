@@ -0,0 +1,433 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.blackrook.small.exception.request.NoConverterException;
+import com.blackrook.small.exception.request.NotFoundException;
+import com.blackrook.small.roles.JSONDriver;
+import com.blackrook.small.roles.ResponseWriter;
+import com.blackrook.small.struct.Utils;
+import com.blackrook.small.util.SmallResponseUtils;
+import com.blackrook.small.util.SmallUtils;
+
+/**
+ * The built-in response writers, used for content classes that no component writes.
+ * @author Matthew Tropiano
+ */
+final class DefaultResponseWriters
+{
+	/** Buffer size for copying content. */
+	private static final int BUFFER_SIZE = 32768;
+	
+	/** The built-in writers, by written class, that never memory-map files. */
+	private static final Map<Class<?>, ResponseWriter<?>> WRITERS = createWriters(0L);
+	
+	private DefaultResponseWriters() {}
+
+	private static void add(Map<Class<?>, ResponseWriter<?>> writers, ResponseWriter<?> writer)
+	{
+		writers.put(writer.getWrittenClass(), writer);
+	}
+
+	/**
+	 * @return the built-in writers, by written class, that never memory-map files.
+	 */
+	static Map<Class<?>, ResponseWriter<?>> getWriters()
+	{
+		return WRITERS;
+	}
+	
+	/**
+	 * Creates a new set of built-in writers.
+	 * @param fileMappingThreshold the largest file size, in bytes, that is memory-mapped when sent. 0 or less is never.
+	 * @return the new writers, by written class.
+	 * @see SmallConfiguration#getFileMappingThreshold()
+	 */
+	static Map<Class<?>, ResponseWriter<?>> createWriters(long fileMappingThreshold)
+	{
+		Map<Class<?>, ResponseWriter<?>> out = new HashMap<>();
+		FileContentWriter fileWriter = new FileContentWriter(fileMappingThreshold);
+		add(out, fileWriter);
+		add(out, new PathContentWriter(fileWriter));
+		add(out, new CharSequenceContentWriter());
+		add(out, new ByteArrayContentWriter());
+		add(out, new ByteBufferContentWriter());
+		add(out, new InputStreamContentWriter());
+		add(out, new ReaderContentWriter());
+		add(out, new ChannelContentWriter());
+		add(out, new IterableContentWriter());
+		add(out, new StreamContentWriter());
+		return out;
+	}
+	
+	/**
+	 * Writes each element of an iterator as a chunk of the response body.
+	 * CharSequences are written as UTF-8, and byte arrays and ByteBuffers are written as-is.
+	 */
+	private static void writeChunks(HttpServletResponse response, String mimeType, Iterator<?> iterator) throws NoConverterException, IOException
+	{
+		if (!Utils.isEmpty(mimeType))
+			response.setHeader("Content-Type", mimeType);
+		response.setBufferSize(BUFFER_SIZE);
+		
+		OutputStream out = response.getOutputStream();
+		WritableByteChannel channel = null;
+		while (iterator.hasNext())
+		{
+			Object element = iterator.next();
+			if (element == null)
+				continue;
+			else if (element instanceof CharSequence)
+				out.write(element.toString().getBytes(StandardCharsets.UTF_8));
+			else if (element instanceof byte[])
+				out.write((byte[])element);
+			else if (element instanceof ByteBuffer)
+				writeBuffer(out, channel != null ? channel : (channel = Channels.newChannel(out)), (ByteBuffer)element);
+			else
+				throw new NoConverterException("No suitable converter found for " + element.getClass());
+		}
+	}
+
+	/**
+	 * Writes the remaining contents of a buffer without changing its position.
+	 */
+	private static void writeBuffer(OutputStream out, WritableByteChannel channel, ByteBuffer buffer) throws IOException
+	{
+		if (buffer.hasArray())
+		{
+			out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+		}
+		else
+		{
+			ByteBuffer data = buffer.duplicate();
+			while (data.hasRemaining())
+				channel.write(data);
+		}
+	}
+
+	/**
+	 * Writes Files, as their contents, or the ranges of them that were requested.
+	 */
+	private static class FileContentWriter implements ResponseWriter<File>
+	{
+		private long mappingThreshold;
+		
+		private FileContentWriter(long mappingThreshold)
+		{
+			this.mappingThreshold = mappingThreshold;
+		}
+		
+		@Override
+		public Class<File> getWrittenClass()
+		{
+			return File.class;
+		}
+
+		@Override
+		public boolean writeContent(HttpServletRequest request, HttpServletResponse response, String mimeType, File content) throws NotFoundException
+		{
+			if (!content.exists() || content.isDirectory())
+				throw new NotFoundException("File not found.", false);
+			SmallResponseUtils.sendFileContents(
+				request,
+				response, 
+				mimeType != null ? mimeType : SmallUtils.getMIMEType(request.getServletContext(), content.getName()),
+				content,
+				mappingThreshold > 0 && content.length() <= mappingThreshold
+			);
+			return true;
+		}
+	}
+
+	/**
+	 * Writes Paths, as their contents.
+	 */
+	private static class PathContentWriter implements ResponseWriter<Path>
+	{
+		private FileContentWriter fileWriter;
+		
+		private PathContentWriter(FileContentWriter fileWriter)
+		{
+			this.fileWriter = fileWriter;
+		}
+		
+		@Override
+		public Class<Path> getWrittenClass()
+		{
+			return Path.class;
+		}
+
+		@Override
+		public boolean writeContent(HttpServletRequest request, HttpServletResponse response, String mimeType, Path content) throws NotFoundException, NoConverterException, IOException
+		{
+			if (content.getFileSystem() == FileSystems.getDefault())
+				return fileWriter.writeContent(request, response, mimeType, content.toFile());
+			
+			if (!Files.exists(content) || Files.isDirectory(content))
+				throw new NotFoundException("File not found.", false);
+			Path fileName = content.getFileName();
+			try (InputStream in = Files.newInputStream(content))
+			{
+				SmallResponseUtils.sendData(
+					response, 
+					mimeType != null ? mimeType : SmallUtils.getMIMEType(request.getServletContext(), fileName != null ? fileName.toString() : ""), 
+					in,
+					Files.size(content)
+				);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Writes CharSequences (Strings, StringBuilders, ...), as text.
+	 */
+	private static class CharSequenceContentWriter implements ResponseWriter<CharSequence>
+	{
+		@Override
+		public Class<CharSequence> getWrittenClass()
+		{
+			return CharSequence.class;
+		}
+
+		@Override
+		public boolean writeContent(HttpServletRequest request, HttpServletResponse response, String mimeType, CharSequence content)
+		{
+			SmallResponseUtils.sendStringData(response, mimeType != null ? mimeType : "text/plain", content.toString());
+			return true;
+		}
+	}
+
+	/**
+	 * Writes byte arrays.
+	 */
+	private static class ByteArrayContentWriter implements ResponseWriter<byte[]>
+	{
+		@Override
+		public Class<byte[]> getWrittenClass()
+		{
+			return byte[].class;
+		}
+
+		@Override
+		public boolean writeContent(HttpServletRequest request, HttpServletResponse response, String mimeType, byte[] content)
+		{
+			SmallResponseUtils.sendData(
+				response,
+				mimeType != null ? mimeType : "application/octet-stream", 
+				new ByteArrayInputStream(content), 
+				(long)content.length
+			);
+			return true;
+		}
+	}
+
+	/**
+	 * Writes the remaining contents of ByteBuffers (and MappedByteBuffers).
+	 * The buffer's position is not changed.
+	 */
+	private static class ByteBufferContentWriter implements ResponseWriter<ByteBuffer>
+	{
+		@Override
+		public Class<ByteBuffer> getWrittenClass()
+		{
+			return ByteBuffer.class;
+		}
+
+		@Override
+		public boolean writeContent(HttpServletRequest request, HttpServletResponse response, String mimeType, ByteBuffer content) throws IOException
+		{
+			response.setHeader("Content-Type", mimeType != null ? mimeType : "application/octet-stream");
+			response.setHeader("Content-Length", String.valueOf(content.remaining()));
+			OutputStream out = response.getOutputStream();
+			writeBuffer(out, content.hasArray() ? null : Channels.newChannel(out), content);
+			return true;
+		}
+	}
+
+	/**
+	 * Writes InputStreams, and closes them.
+	 */
+	private static class InputStreamContentWriter implements ResponseWriter<InputStream>
+	{
+		@Override
+		public Class<InputStream> getWrittenClass()
+		{
+			return InputStream.class;
+		}
+
+		@Override
+		public boolean writeContent(HttpServletRequest request, HttpServletResponse response, String mimeType, InputStream content) throws IOException
+		{
+			try (InputStream in = content)
+			{
+				SmallResponseUtils.sendData(response, in);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Writes Readers as text, and closes them.
+	 */
+	private static class ReaderContentWriter implements ResponseWriter<Reader>
+	{
+		@Override
+		public Class<Reader> getWrittenClass()
+		{
+			return Reader.class;
+		}
+
+		@Override
+		public boolean writeContent(HttpServletRequest request, HttpServletResponse response, String mimeType, Reader content) throws IOException
+		{
+			response.setContentType(mimeType != null ? mimeType : "text/plain; charset=utf-8");
+			response.setBufferSize(BUFFER_SIZE);
+			try (Reader reader = content)
+			{
+				Writer writer = response.getWriter();
+				char[] buffer = new char[BUFFER_SIZE / 2];
+				int n;
+				while ((n = reader.read(buffer)) >= 0)
+					writer.write(buffer, 0, n);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Writes ReadableByteChannels, and closes them.
+	 */
+	private static class ChannelContentWriter implements ResponseWriter<ReadableByteChannel>
+	{
+		@Override
+		public Class<ReadableByteChannel> getWrittenClass()
+		{
+			return ReadableByteChannel.class;
+		}
+
+		@Override
+		public boolean writeContent(HttpServletRequest request, HttpServletResponse response, String mimeType, ReadableByteChannel content) throws IOException
+		{
+			response.setHeader("Content-Type", mimeType != null ? mimeType : "application/octet-stream");
+			response.setBufferSize(BUFFER_SIZE);
+			try (ReadableByteChannel in = content)
+			{
+				WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+				ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+				while (in.read(buffer) >= 0)
+				{
+					buffer.flip();
+					while (buffer.hasRemaining())
+						out.write(buffer);
+					buffer.clear();
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Writes Iterables of CharSequences, byte arrays, or ByteBuffers as chunks of the response body.
+	 * Iterables sent as JSON or XML (or with no type) are left to the converters.
+	 */
+	@SuppressWarnings("rawtypes")
+	private static class IterableContentWriter implements ResponseWriter<Iterable>
+	{
+		@Override
+		public Class<Iterable> getWrittenClass()
+		{
+			return Iterable.class;
+		}
+
+		@Override
+		public boolean writeContent(HttpServletRequest request, HttpServletResponse response, String mimeType, Iterable content) throws NoConverterException, IOException
+		{
+			if (Utils.isEmpty(mimeType) || SmallUtils.isJSON(mimeType) || SmallUtils.isXML(mimeType))
+				return false;
+			writeChunks(response, mimeType, content.iterator());
+			return true;
+		}
+	}
+
+	/**
+	 * Writes Streams, and closes them.
+	 * Streams sent as JSON (or with no type) are written as a JSON array, one element at a time.
+	 * Streams sent as XML are left to the converter. 
+	 * Otherwise, the Stream's CharSequences, byte arrays, or ByteBuffers are written as chunks of the response body.
+	 */
+	@SuppressWarnings("rawtypes")
+	private static class StreamContentWriter implements ResponseWriter<Stream>
+	{
+		@Override
+		public Class<Stream> getWrittenClass()
+		{
+			return Stream.class;
+		}
+
+		@Override
+		public boolean writeContent(HttpServletRequest request, HttpServletResponse response, String mimeType, Stream content) throws NoConverterException, IOException
+		{
+			if (SmallUtils.isXML(mimeType))
+				return false;
+
+			try (Stream stream = content)
+			{
+				if (Utils.isEmpty(mimeType) || SmallUtils.isJSON(mimeType))
+				{
+					SmallEnvironment environment = SmallUtils.getEnvironment(request.getServletContext());
+					JSONDriver driver = environment != null ? environment.getJSONDriver() : null;
+					if (driver == null)
+						throw new NoConverterException("JSON encoding not supported.");
+					response.setContentType("application/json; charset=utf-8");
+					response.setBufferSize(BUFFER_SIZE);
+					
+					Writer writer = response.getWriter();
+					writer.write('[');
+					Iterator<?> iterator = stream.iterator();
+					for (boolean first = true; iterator.hasNext(); first = false)
+					{
+						if (!first)
+							writer.write(',');
+						driver.toJSON(writer, iterator.next());
+					}
+					writer.write(']');
+				}
+				else
+				{
+					writeChunks(response, mimeType, stream.iterator());
+				}
+			}
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * A map of cookie name to cookie, read from a request's cookies on first use.
+ * Single cookies are found by searching the cookie array. The full map is only built if it is iterated or changed.
+ * If more than one cookie has the same name, the last one is used.
+ * @author Matthew Tropiano
+ */
+final class RequestCookieMap extends AbstractMap<String, Cookie>
+{
+	private static final Cookie[] NO_COOKIES = new Cookie[0];
+	
+	/** The request to read cookies from. */
+	private HttpServletRequest request;
+	/** The request's cookies, or null if not read yet. */
+	private Cookie[] cookies;
+	/** The full map, or null if not built yet. */
+	private Map<String, Cookie> map;
+	
+	/**
+	 * Creates a new cookie map.
+	 * @param request the request to read cookies from.
+	 */
+	RequestCookieMap(HttpServletRequest request)
+	{
+		this.request = request;
+		this.cookies = null;
+		this.map = null;
+	}
+	
+	private Cookie[] getCookies()
+	{
+		if (cookies == null)
+		{
+			Cookie[] requestCookies = request.getCookies();
+			cookies = requestCookies != null ? requestCookies : NO_COOKIES;
+		}
+		return cookies;
+	}
+	
+	private Map<String, Cookie> getMap()
+	{
+		if (map == null)
+		{
+			Cookie[] cookies = getCookies();
+			Map<String, Cookie> out = new HashMap<>(Math.max(cookies.length * 2, 2));
+			for (Cookie c : cookies)
+				out.put(c.getName(), c);
+			map = out;
+		}
+		return map;
+	}
+	
+	@Override
+	public Cookie get(Object key)
+	{
+		if (map != null)
+			return map.get(key);
+		
+		Cookie[] cookies = getCookies();
+		for (int i = cookies.length - 1; i >= 0; i--)
+			if (cookies[i].getName().equals(key))
+				return cookies[i];
+		return null;
+	}
+	
+	@Override
+	public boolean containsKey(Object key)
+	{
+		if (map != null)
+			return map.containsKey(key);
+		return get(key) != null;
+	}
+	
+	@Override
+	public boolean isEmpty()
+	{
+		if (map != null)
+			return map.isEmpty();
+		return getCookies().length == 0;
+	}
+	
+	@Override
+	public Cookie put(String key, Cookie value)
+	{
+		return getMap().put(key, value);
+	}
+	
+	@Override
+	public Cookie remove(Object key)
+	{
+		return getMap().remove(key);
+	}
+	
+	@Override
+	public void clear()
+	{
+		getMap().clear();
+	}
+	
+	@Override
+	public Set<Entry<String, Cookie>> entrySet()
+	{
+		return getMap().entrySet();
+	}
+	
+}
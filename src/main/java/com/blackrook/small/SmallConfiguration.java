@@ -7,6 +7,8 @@
  ******************************************************************************/
 package com.blackrook.small;
 
+import com.blackrook.small.enums.RouteCachePolicy;
+
 /**
  * Small Configuration class.
  * @author Matthew Tropiano
@@ -73,6 +75,77 @@ public interface SmallConfiguration
 	 */
 	boolean autoParseMultipart();
 
+	/**
+	 * Gets the maximum amount of resolved request paths to keep in the route cache.
+	 * Up to a quarter as many paths that did not resolve to anything are kept apart from these, 
+	 * so that they do not push out paths that did.
+	 * If this is 0 or less, the route cache is not used.
+	 * <p>By default, this returns 0.
+	 * @return the maximum amount of cached paths.
+	 * @since 1.7.0
+	 */
+	default int getRouteCacheSize()
+	{
+		return 0;
+	}
+
+	/**
+	 * Gets which resolved paths can be kept in the route cache, if it is used.
+	 * <p>By default, this returns {@link RouteCachePolicy#STATIC}.
+	 * @return the route cache policy.
+	 * @see #getRouteCacheSize()
+	 * @since 1.7.0
+	 */
+	default RouteCachePolicy getRouteCachePolicy()
+	{
+		return RouteCachePolicy.STATIC;
+	}
+
+	/**
+	 * Gets if each request is handed off from the servlet container's thread to a new thread owned by the application,
+	 * so that controllers that block do not hold container threads while they wait.
+	 * Virtual threads are used if the Java runtime has them (Java 21 or higher), otherwise the threads come from a cached thread pool.
+	 * <p>The servlet must be registered with async support for this to have any effect.
+	 * <p>By default, this returns false.
+	 * @return true to hand off requests to other threads, false to handle requests on the container's threads.
+	 * @since 1.7.0
+	 */
+	default boolean useVirtualThreads()
+	{
+		return false;
+	}
+
+	/**
+	 * Gets the minimum amount of milliseconds between logged uncaught exceptions of the same type on the same controller entry point
+	 * (route and method).
+	 * Only the first exception in each interval is logged, with a count of the ones that were skipped before it.
+	 * Requests that were not routed to an entry point count as one, so that requests for many paths that do not exist do not flood the log.
+	 * If this is 0 or less, every uncaught exception is logged.
+	 * <p>By default, this returns 10000 (10 seconds).
+	 * @return the interval in milliseconds.
+	 * @since 1.7.0
+	 */
+	default long getUncaughtExceptionLogInterval()
+	{
+		return 10000L;
+	}
+
+	/**
+	 * Gets the maximum size in bytes of files returned as content that are memory-mapped, instead of read each time they are sent.
+	 * Mappings are kept for reuse, so this is only for applications whose content files are small, sent often, and never 
+	 * changed in place, truncated, or deleted while the application runs. A mapping is only replaced if the file's length or 
+	 * last-modified time changes, sending a mapped file that was truncated can crash the JVM, and mapped files 
+	 * may not be deletable on some operating systems.
+	 * If this is 0 or less, no files are mapped.
+	 * <p>By default, this returns 0.
+	 * @return the maximum size of mapped files in bytes.
+	 * @since 1.7.0
+	 */
+	default long getFileMappingThreshold()
+	{
+		return 0L;
+	}
+
 	/**
 	 * Fetches the value of an arbitrary attribute set that may be specific to the application.
 	 * Returns a default value if it is not set.
@@ -23,4 +23,23 @@ public interface SmallConstants
 	String SMALL_REQUEST_ATTRIBUTE_RESPONSE_OBJECT = "small.request.response.object";
 	/** The attribute name for the part list on multipart requests. */
 	String SMALL_REQUEST_ATTRIBUTE_MULTIPART_LIST = "small.request.part.list";
+	/** The attribute name for the parsed request URI that gets set on the request context on each request. */
+	String SMALL_REQUEST_ATTRIBUTE_REQUEST_URI = "small.request.uri";
+	/** 
+	 * The attribute name for the map of models already built on the request, keyed by model name and type, 
+	 * so that filters and controllers that read the same model get the same object.
+	 * @since 1.7.0
+	 */
+	String SMALL_REQUEST_ATTRIBUTE_MODEL_MAP = "small.request.model.map";
+	/** 
+	 * The attribute name for the {@link SmallRequestContext} that gets set on the request on each request.
+	 * @since 1.7.0
+	 */
+	String SMALL_REQUEST_ATTRIBUTE_CONTEXT = "small.request.context";
+	/** 
+	 * The attribute name for the object on each session that is locked to build session-scoped attributes once per session.
+	 * @see com.blackrook.small.util.SmallUtils#getSessionMutex(javax.servlet.http.HttpSession)
+	 * @since 1.7.0
+	 */
+	String SMALL_SESSION_ATTRIBUTE_MUTEX = "small.session.mutex";
 }
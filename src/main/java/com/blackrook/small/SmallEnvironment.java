@@ -11,16 +11,29 @@ import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
-import java.util.regex.PatternSyntaxException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import javax.servlet.ServletContext;
@@ -41,11 +54,12 @@ import com.blackrook.small.annotation.Component;
 import com.blackrook.small.annotation.ComponentConstructor;
 import com.blackrook.small.annotation.Controller;
 import com.blackrook.small.annotation.Filter;
-import com.blackrook.small.annotation.controller.EntryPath;
+import com.blackrook.small.annotation.component.BeforeDestruction;
+import com.blackrook.small.annotation.dispatch.ParallelConstruction;
 import com.blackrook.small.dispatch.controller.ControllerComponent;
 import com.blackrook.small.dispatch.controller.ControllerEntryPoint;
 import com.blackrook.small.dispatch.filter.FilterComponent;
-import com.blackrook.small.enums.RequestMethod;
+import com.blackrook.small.enums.RouteCachePolicy;
 import com.blackrook.small.exception.SmallFrameworkException;
 import com.blackrook.small.exception.SmallFrameworkSetupException;
 import com.blackrook.small.exception.views.ViewProcessingException;
@@ -53,10 +67,10 @@ import com.blackrook.small.roles.DefaultMIMETypeDriver;
 import com.blackrook.small.roles.ExceptionHandler;
 import com.blackrook.small.roles.JSONDriver;
 import com.blackrook.small.roles.MIMETypeDriver;
+import com.blackrook.small.roles.ResponseWriter;
 import com.blackrook.small.roles.ViewDriver;
 import com.blackrook.small.roles.XMLDriver;
 import com.blackrook.small.struct.HashDequeMap;
-import com.blackrook.small.struct.URITrie;
 import com.blackrook.small.struct.Utils;
 import com.blackrook.small.util.SmallUtils;
 
@@ -70,6 +84,21 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 	 * Default MIME-Type driver.
 	 */
 	private static final MIMETypeDriver DEFAULT_MIME = new DefaultMIMETypeDriver();
+	/**
+	 * Cached in place of an exception handler for exception classes without one.
+	 */
+	private static final Object NO_EXCEPTION_HANDLER = new Object();
+	/**
+	 * Built-in response writers found for content classes.
+	 */
+	private static final ClassValue<ResponseWriter<?>> DEFAULT_RESPONSE_WRITER_CACHE = new ClassValue<ResponseWriter<?>>()
+	{
+		@Override
+		protected ResponseWriter<?> computeValue(Class<?> type)
+		{
+			return findClassMapping(DefaultResponseWriters.getWriters(), type);
+		}
+	};
 
 	/** Tempdir root. */
 	private File tempDir;
@@ -84,15 +113,35 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 	private List<ViewDriver> viewDriverList;
 	/** Exception handler map. */
 	private Map<Class<?>, Object> exceptionHandlerMap;
+	/** Exception handlers found for thrown exception classes (or {@link #NO_EXCEPTION_HANDLER}). */
+	private Map<Class<?>, Object> exceptionHandlerCache;
+	/** Response writer map. */
+	private Map<Class<?>, ResponseWriter<?>> responseWriterMap;
+	/** Built-in response writer map. */
+	private Map<Class<?>, ResponseWriter<?>> defaultResponseWriterMap;
+	/** Response writers found for content classes. Replaced when writers are added or removed. */
+	private volatile ClassValue<ResponseWriter<?>> responseWriterCache;
 	
 	/** Components-in-construction set. */
 	private Set<Class<?>> componentsConstructing;
 	
-	/** The method to path to controller trie. */
-	private Map<RequestMethod, URITrie<ControllerEntryPoint>> controllerEntries;
+	/** The current controller route table. Replaced, never changed, when controllers are added or removed. */
+	private volatile ControllerRouteTable controllerRouteTable;
+	/** The route with no entry points. */
+	private ControllerRoute emptyRoute;
+	/** The maximum size of each route table's search result cache. */
+	private int routeCacheSize;
+	/** Which routes can be cached. */
+	private RouteCachePolicy routeCachePolicy;
+	/** The executor that requests are handed off to. Null if not used. */
+	private ExecutorService dispatchExecutor;
+	/** The executor for building models and attributes concurrently. Created on first use. */
+	private volatile ExecutorService constructorExecutor;
 
 	/** The components that are instantiated mapped by type (super-types and specific). */
 	private HashDequeMap<Class<?>, SmallComponent> componentTypeMapping;
+	/** A copy of the type mapping, for lookups. Replaced, never changed, when components are added or removed. */
+	private volatile Map<Class<?>, SmallComponent[]> componentTypeLookup;
 
 	/** All components that were instantiated (mapped by specific class type). */
 	private Map<Class<?>, SmallComponent> allComponents;
@@ -118,20 +167,28 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 		this.xmlDriver = null;
 		this.mimeTypeDriver = null;
 
-		this.viewDriverList = new ArrayList<>();
-		this.exceptionHandlerMap = new HashMap<>();
+		this.viewDriverList = new CopyOnWriteArrayList<>();
+		this.exceptionHandlerMap = new ConcurrentHashMap<>();
+		this.exceptionHandlerCache = new ConcurrentHashMap<>();
+		this.responseWriterMap = new ConcurrentHashMap<>();
+		this.defaultResponseWriterMap = DefaultResponseWriters.getWriters();
+		this.responseWriterCache = createResponseWriterCache();
 
 		this.componentsConstructing = new HashSet<>();
 		
 		this.componentTypeMapping = new HashDequeMap<>();
-		this.controllerEntries = new HashMap<>(8);
+		this.componentTypeLookup = Collections.emptyMap();
+		this.emptyRoute = new ControllerRoute(null);
+		this.routeCacheSize = 0;
+		this.routeCachePolicy = RouteCachePolicy.STATIC;
+		this.controllerRouteTable = new ControllerRouteTable(this, Collections.emptyList(), emptyRoute, 0, routeCachePolicy);
 		this.allComponents = new HashMap<>(32);
-		this.controllerComponents = new HashMap<>(16);
-		this.filterComponents = new HashMap<>(16);
+		this.controllerComponents = new LinkedHashMap<>(16);
+		this.filterComponents = new ConcurrentHashMap<>(16);
 		
-		this.contextListeners = new LinkedList<>();
-		this.sessionListeners = new LinkedList<>();
-		this.sessionAttributeListeners = new LinkedList<>();
+		this.contextListeners = new ConcurrentLinkedQueue<>();
+		this.sessionListeners = new ConcurrentLinkedQueue<>();
+		this.sessionAttributeListeners = new ConcurrentLinkedQueue<>();
 	}
 	
 	/**
@@ -140,7 +197,7 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 	 * @param controllerRootPackages the list of controller root packages.
 	 * @param tempDir the temporary directory.
 	 */
-	void init(ServletContext context, String[] controllerRootPackages, File tempDir)
+	synchronized void init(ServletContext context, String[] controllerRootPackages, File tempDir)
 	{
 		this.tempDir = tempDir;
 		this.jsonDriver = null;
@@ -150,12 +207,28 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 		// Pre-register some application-specific objects.
 		registerComponent(context.getClass(), new SmallComponent(context));
 		registerComponent(getClass(), new SmallComponent(this));
-		SmallComponent appConfigComponent = new SmallComponent(SmallUtils.getConfiguration(context));
+		SmallConfiguration config = SmallUtils.getConfiguration(context);
+		SmallComponent appConfigComponent = new SmallComponent(config);
 		registerComponent(appConfigComponent);
 		allComponents.put(SmallConfiguration.class, appConfigComponent);
 
+		// Methods allowed on every path.
+		StringBuilder sb = new StringBuilder();
+		if (config.allowOptions())
+			sb.append("OPTIONS");
+		if (config.allowTrace())
+			sb.append(sb.length() > 0 ? ", " : "").append("TRACE");
+		this.emptyRoute = new ControllerRoute(sb.length() > 0 ? sb.toString() : null);
+		
+		this.routeCacheSize = config.getRouteCacheSize();
+		this.routeCachePolicy = config.getRouteCachePolicy() != null ? config.getRouteCachePolicy() : RouteCachePolicy.STATIC;
+		this.dispatchExecutor = config.useVirtualThreads() ? createDispatchExecutor() : null;
+		this.defaultResponseWriterMap = DefaultResponseWriters.createWriters(config.getFileMappingThreshold());
+		this.responseWriterCache = createResponseWriterCache();
+
 		if (!Utils.isEmpty(controllerRootPackages))
 			initComponents(context, controllerRootPackages);
+		rebuildControllerRoutes();
 		for (Entry<Class<?>, SmallComponent> sc : allComponents.entrySet())
 			sc.getValue().invokeAfterInitializeMethods(this);
 	}
@@ -163,7 +236,7 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 	/**
 	 * Destroys the environment.
 	 */
-	void destroy(ServletContext context)
+	synchronized void destroy(ServletContext context)
 	{
 		// Destroy all components.
 		for (Entry<Class<?>, SmallComponent> sc : allComponents.entrySet())
@@ -175,15 +248,26 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 			}
 		}
 
+		if (dispatchExecutor != null)
+			dispatchExecutor.shutdown();
+		if (constructorExecutor != null)
+			constructorExecutor.shutdown();
+
 		tempDir = null;
 		jsonDriver = null;
 		xmlDriver = null;
 		mimeTypeDriver = null;
+		dispatchExecutor = null;
+		constructorExecutor = null;
 		viewDriverList.clear();
 		exceptionHandlerMap.clear();
+		exceptionHandlerCache.clear();
+		responseWriterMap.clear();
+		responseWriterCache = createResponseWriterCache();
 		componentsConstructing.clear();
-		controllerEntries.clear();
+		controllerRouteTable = new ControllerRouteTable(this, Collections.emptyList(), emptyRoute, 0, routeCachePolicy);
 		componentTypeMapping.clear();
+		componentTypeLookup = Collections.emptyMap();
 		allComponents.clear();
 		controllerComponents.clear();
 		filterComponents.clear();
@@ -192,6 +276,97 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 		sessionAttributeListeners.clear();
 	}
 
+	/**
+	 * Creates the executor that requests are handed off to: 
+	 * a virtual thread per task executor, if this Java runtime has one, or else a cached thread pool.
+	 * @return a new executor.
+	 */
+	private static ExecutorService createDispatchExecutor()
+	{
+		ExecutorService out;
+		if ((out = createVirtualThreadExecutor()) != null)
+			return out;
+		return Executors.newCachedThreadPool(createThreadFactory("SmallDispatch-"));
+	}
+
+	/**
+	 * Creates the executor that models and attributes are built on: 
+	 * a virtual thread per task executor, if this Java runtime has one, or else a pool with 
+	 * one thread per available processor (at least 2), where builds wait in line for a thread.
+	 * @return a new executor.
+	 */
+	private static ExecutorService createConstructorExecutor()
+	{
+		ExecutorService out;
+		if ((out = createVirtualThreadExecutor()) != null)
+			return out;
+		int threads = Math.max(Runtime.getRuntime().availableProcessors(), 2);
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), createThreadFactory("SmallConstructor-"));
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	/**
+	 * Creates a virtual thread per task executor, if this Java runtime has one (Java 21+).
+	 * @return a new executor, or null if virtual threads are not available.
+	 */
+	private static ExecutorService createVirtualThreadExecutor()
+	{
+		try {
+			return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a factory for numbered daemon threads.
+	 * @param namePrefix the prefix for the thread names.
+	 * @return a new thread factory.
+	 */
+	private static ThreadFactory createThreadFactory(final String namePrefix)
+	{
+		final AtomicInteger threadId = new AtomicInteger(0);
+		return (runnable) -> 
+		{
+			Thread out = new Thread(runnable, namePrefix + threadId.getAndIncrement());
+			out.setDaemon(true);
+			return out;
+		};
+	}
+
+	/**
+	 * Gets the executor that requests are handed off to, if used.
+	 * @return the executor, or null if requests are handled on the servlet container's threads.
+	 * @see SmallConfiguration#useVirtualThreads()
+	 */
+	ExecutorService getDispatchExecutor()
+	{
+		return dispatchExecutor;
+	}
+
+	/**
+	 * Gets the executor that builds models and attributes concurrently for entry methods that ask for it.
+	 * It is created on first use: it starts a virtual thread per build on Java 21+, or else is a pool 
+	 * with one thread per available processor (at least 2), so that builds never start an unbounded amount of threads.
+	 * @return the executor.
+	 * @see ParallelConstruction
+	 * @since 1.7.0
+	 */
+	public Executor getConstructorExecutor()
+	{
+		ExecutorService out;
+		if ((out = constructorExecutor) == null)
+		{
+			synchronized (this)
+			{
+				if ((out = constructorExecutor) == null)
+					constructorExecutor = out = createConstructorExecutor();
+			}
+		}
+		return out;
+	}
+
 	/**
 	 * Retrieves a filter singleton by class.
 	 * @param filterClass the class to search for.
@@ -203,16 +378,23 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 	}
 
 	/**
-	 * Gets the controller entry point to use using a URL path.
-	 * This searches the path tree until it hits a dead end.
-	 * @param requestMethod the request method to use.
-	 * @param path the path to use.
-	 * @return a URI resolution result or null if the method is never used.
+	 * Gets the current controller route table.
+	 * A request should get this once and do all of its route searches on it,
+	 * since the table may be replaced while the request is handled.
+	 * @return the route table.
+	 */
+	ControllerRouteTable getControllerRouteTable()
+	{
+		return controllerRouteTable;
+	}
+
+	/**
+	 * Builds a new controller route table from all of the current controllers and publishes it.
+	 * @throws SmallFrameworkSetupException if a controller's entry point path could not be added, or a filter in a filter chain is missing.
 	 */
-	URITrie.Result<ControllerEntryPoint> getControllerEntryPoint(RequestMethod requestMethod, String path)
+	private void rebuildControllerRoutes()
 	{
-		URITrie<ControllerEntryPoint> trie = controllerEntries.get(requestMethod);
-		return trie != null ? trie.resolve(SmallUtils.trimSlashes(path)) : null;
+		controllerRouteTable = new ControllerRouteTable(this, controllerComponents.values(), emptyRoute, routeCacheSize, routeCachePolicy);
 	}
 
 	/**
@@ -355,7 +537,16 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 			viewDriverList.add((ViewDriver)componentInstance);
 		
 		if (ExceptionHandler.class.isAssignableFrom(componentClass))
+		{
 			exceptionHandlerMap.put(((ExceptionHandler<?>)componentInstance).getHandledClass(), componentInstance);
+			exceptionHandlerCache.clear();
+		}
+		
+		if (ResponseWriter.class.isAssignableFrom(componentClass))
+		{
+			responseWriterMap.put(((ResponseWriter<?>)componentInstance).getWrittenClass(), (ResponseWriter<?>)componentInstance);
+			responseWriterCache = createResponseWriterCache();
+		}
 		
 		SmallComponent component;
 		if (componentClass.isAnnotationPresent(Controller.class))
@@ -368,26 +559,6 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 			registerComponent(component);
 			component.scanMethods();
 			component.invokeAfterConstructionMethods();
-			
-			EntryPath entryPathAnno = componentClass.getAnnotation(EntryPath.class);
-			
-			String path = SmallUtils.trimSlashes(entryPathAnno != null ? entryPathAnno.value() + '/' : "");
-			for (ControllerEntryPoint entryPoint : ((ControllerComponent)component).getEntryMethods())
-			{
-				String uri = path + '/' + SmallUtils.trimSlashes(entryPoint.getPath());
-				for (RequestMethod rm : entryPoint.getRequestMethods())
-				{
-					URITrie<ControllerEntryPoint> trie;
-					if ((trie = controllerEntries.get(rm)) == null)
-						controllerEntries.put(rm, trie = new URITrie<>());
-					
-					try {
-						trie.add(uri, entryPoint);
-					} catch (PatternSyntaxException e) {
-						throw new SmallFrameworkSetupException("Could not set up controller "+componentClass+", method "+entryPoint.getMethod(), e);
-					}
-				}
-			}
 		}
 		else if (componentClass.isAnnotationPresent(Filter.class))
 		{						
@@ -434,6 +605,7 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 		Class<?> componentClass = component.getInstance().getClass();
 		allComponents.put(componentClass, component);
 		registerComponentTree(componentClass, component);
+		publishComponentTypes();
 	}
 
 	private void registerComponentTree(Class<?> type, SmallComponent instance)
@@ -446,6 +618,54 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 		registerComponentTree(type.getSuperclass(), instance);
 	}
 	
+	// Removes a component from every mapping and role that it was added to.
+	private void unregisterComponent(SmallComponent component)
+	{
+		Object instance = component.getInstance();
+		Class<?> componentClass = instance.getClass();
+		allComponents.remove(componentClass);
+		controllerComponents.remove(componentClass);
+		filterComponents.remove(componentClass);
+		unregisterComponentTree(componentClass, component);
+		publishComponentTypes();
+
+		contextListeners.remove(instance);
+		sessionListeners.remove(instance);
+		sessionAttributeListeners.remove(instance);
+		viewDriverList.remove(instance);
+		if (exceptionHandlerMap.values().remove(instance))
+			exceptionHandlerCache.clear();
+		if (responseWriterMap.values().remove(instance))
+			responseWriterCache = createResponseWriterCache();
+		if (jsonDriver == instance)
+			jsonDriver = null;
+		if (xmlDriver == instance)
+			xmlDriver = null;
+		if (mimeTypeDriver == instance)
+			mimeTypeDriver = DEFAULT_MIME;
+	}
+
+	// Replaces the type lookup with a copy of the current type mapping.
+	private void publishComponentTypes()
+	{
+		Map<Class<?>, SmallComponent[]> lookup = new HashMap<>(componentTypeMapping.size() * 2);
+		for (Entry<Class<?>, Deque<SmallComponent>> entry : componentTypeMapping.entrySet())
+			if (!entry.getValue().isEmpty())
+				lookup.put(entry.getKey(), entry.getValue().toArray(new SmallComponent[entry.getValue().size()]));
+		componentTypeLookup = lookup;
+	}
+
+	private void unregisterComponentTree(Class<?> type, SmallComponent instance)
+	{
+		if (type == null)
+			return;
+		if (componentTypeMapping.containsKey(type))
+			componentTypeMapping.removeValue(type, instance);
+		for (Class<?> iface : type.getInterfaces())
+			unregisterComponentTree(iface, instance);
+		unregisterComponentTree(type.getSuperclass(), instance);
+	}
+	
 	/**
 	 * @param <T> object type.
 	 * @return the specific constructor to use for this class.
@@ -524,13 +744,13 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 	@SuppressWarnings("unchecked")
 	public <T> T getComponent(Class<T> clazz)
 	{
-		Deque<SmallComponent> componentDeque;
-		if ((componentDeque = componentTypeMapping.get(clazz)) != null)
+		SmallComponent[] components;
+		if ((components = componentTypeLookup.get(clazz)) != null)
 		{
-			if (componentDeque.size() > 1)
+			if (components.length > 1)
 				throw new SmallFrameworkException("Too many components match class: " + clazz.getName());
 			else
-				return (T)(componentDeque.getFirst().getInstance());
+				return (T)(components[0].getInstance());
 		}
 		else
 		{
@@ -548,10 +768,10 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 	@SuppressWarnings("unchecked")
 	public <T> Iterable<T> getComponentList(Class<T> clazz)
 	{
-		Deque<SmallComponent> components;
-		if ((components = componentTypeMapping.get(clazz)) != null)
+		SmallComponent[] components;
+		if ((components = componentTypeLookup.get(clazz)) != null)
 		{
-			return (Iterable<T>)components.stream()
+			return (Iterable<T>)Arrays.stream(components)
 				.map((oo)->oo.getInstance())
 				.collect(Collectors.toList());
 		}
@@ -578,6 +798,78 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 		return out;
 	}
 
+	/**
+	 * Creates and adds a controller component after this environment was initialized, 
+	 * and adds its entry points to the controller routes.
+	 * Components that the controller depends on and the filters in its filter chains are created if they do not exist yet.
+	 * <p>The new routes are published all at once, and requests that are already being handled are not affected.
+	 * Route searches never wait on this method.
+	 * @param <T> the controller type.
+	 * @param controllerClass the class to instantiate (must be annotated with {@link Controller}).
+	 * @return the new controller instance.
+	 * @throws SmallFrameworkSetupException if the class is not a controller, is already a component, or could not be set up.
+	 * @since 1.7.0
+	 * @see #removeController(Class)
+	 */
+	public synchronized <T> T addController(Class<T> controllerClass)
+	{
+		if (!controllerClass.isAnnotationPresent(Controller.class))
+			throw new SmallFrameworkSetupException("Class "+controllerClass.getName()+" is not annotated with @Controller.");
+		if (allComponents.containsKey(controllerClass))
+			throw new SmallFrameworkSetupException("Class "+controllerClass.getName()+" is already a component.");
+		
+		Set<Class<?>> existingClasses = new HashSet<>(allComponents.keySet());
+		try {
+			ControllerComponent controller = (ControllerComponent)createSmallComponent(controllerClass);
+			for (ControllerEntryPoint entryPoint : controller.getEntryMethods())
+			{
+				for (Class<?> filterClass : entryPoint.getFilterChain())
+				{
+					if (!filterComponents.containsKey(filterClass))
+					{
+						if (!filterClass.isAnnotationPresent(Filter.class))
+							throw new SmallFrameworkSetupException("Class "+filterClass.getName()+" in the filter chain of "+entryPoint.getMethod()+" is not annotated with @Filter.");
+						createOrGetSmallComponent(filterClass);
+					}
+				}
+			}
+			rebuildControllerRoutes();
+		} catch (RuntimeException e) {
+			// Undo everything created - the current route table is untouched.
+			componentsConstructing.clear();
+			for (SmallComponent component : new ArrayList<>(allComponents.values()))
+				if (!existingClasses.contains(component.getInstance().getClass()))
+					unregisterComponent(component);
+			throw e;
+		}
+
+		for (SmallComponent component : new ArrayList<>(allComponents.values()))
+			if (!existingClasses.contains(component.getInstance().getClass()))
+				component.invokeAfterInitializeMethods(this);
+		return controllerClass.cast(controllerComponents.get(controllerClass).getInstance());
+	}
+
+	/**
+	 * Removes a controller component from this environment, and removes its entry points from the controller routes.
+	 * The new routes are published all at once, and requests that are already being handled by the controller 
+	 * are allowed to finish. The controller's {@link BeforeDestruction} methods are called after its routes are removed.
+	 * <p>Components created for the controller (dependencies and filters) are not removed.
+	 * @param controllerClass the controller class.
+	 * @return true if the controller was removed, false if no controller with that class was added.
+	 * @since 1.7.0
+	 * @see #addController(Class)
+	 */
+	public synchronized boolean removeController(Class<?> controllerClass)
+	{
+		ControllerComponent controller;
+		if ((controller = controllerComponents.get(controllerClass)) == null)
+			return false;
+		unregisterComponent(controller);
+		rebuildControllerRoutes();
+		((SmallComponent)controller).invokeBeforeDestructionMethods();
+		return true;
+	}
+
 	/**
 	 * Iterates through the list of views attempting to 
 	 * find a view handler suitable for rendering the provided view.
@@ -607,20 +899,116 @@ public class SmallEnvironment implements HttpSessionAttributeListener, HttpSessi
 	@SuppressWarnings("unchecked")
 	public <T extends Throwable> boolean handleException(HttpServletRequest request, HttpServletResponse response, T throwable)
 	{
-		ExceptionHandler<T> handler;
 		Class<?> exceptionClass = throwable.getClass();
+		Object handler;
+		if ((handler = exceptionHandlerCache.get(exceptionClass)) == null)
+		{
+			handler = findExceptionHandler(exceptionClass);
+			exceptionHandlerCache.put(exceptionClass, handler != null ? handler : NO_EXCEPTION_HANDLER);
+		}
 		
-		while ((handler = (ExceptionHandler<T>)exceptionHandlerMap.get(exceptionClass)) == null && exceptionClass != Object.class)
-			exceptionClass = exceptionClass.getSuperclass();
-		
-		if (handler != null)
+		if (handler != NO_EXCEPTION_HANDLER && handler != null)
 		{
-			handler.handleException(request, response, throwable);
+			((ExceptionHandler<T>)handler).handleException(request, response, throwable);
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * Finds the exception handler for an exception class.
+	 * @param exceptionClass the exception class.
+	 * @return the handler, or null if none.
+	 * @see #findClassMapping(Map, Class)
+	 */
+	private Object findExceptionHandler(Class<?> exceptionClass)
+	{
+		return findClassMapping(exceptionHandlerMap, exceptionClass);
+	}
+
+	/**
+	 * Gets the response writer for a content class.
+	 * Writers on components are preferred over the built-in writers. 
+	 * @param contentClass the content class.
+	 * @return the writer, or null if none.
+	 * @since 1.7.0
+	 */
+	public ResponseWriter<?> getResponseWriter(Class<?> contentClass)
+	{
+		return responseWriterCache.get(contentClass);
+	}
+
+	/**
+	 * Gets the built-in response writer for a content class, 
+	 * for writing content without an environment.
+	 * @param contentClass the content class.
+	 * @return the writer, or null if none.
+	 * @since 1.7.0
+	 */
+	public static ResponseWriter<?> getDefaultResponseWriter(Class<?> contentClass)
+	{
+		return DEFAULT_RESPONSE_WRITER_CACHE.get(contentClass);
+	}
+
+	/**
+	 * Creates a new cache of response writers found for content classes.
+	 * @return the new cache.
+	 */
+	private ClassValue<ResponseWriter<?>> createResponseWriterCache()
+	{
+		return new ClassValue<ResponseWriter<?>>()
+		{
+			@Override
+			protected ResponseWriter<?> computeValue(Class<?> type)
+			{
+				ResponseWriter<?> out;
+				if ((out = findClassMapping(responseWriterMap, type)) != null)
+					return out;
+				return findClassMapping(defaultResponseWriterMap, type);
+			}
+		};
+	}
+
+	/**
+	 * Finds the value mapped to a class: the value for the class itself, 
+	 * or else one of its interfaces, or else the same for its superclass, and so on.
+	 * @param <V> the value type.
+	 * @param map the map of values by class.
+	 * @param type the class.
+	 * @return the value, or null if none.
+	 */
+	private static <V> V findClassMapping(Map<Class<?>, V> map, Class<?> type)
+	{
+		V out;
+		for (Class<?> c = type; c != null; c = c.getSuperclass())
+		{
+			if ((out = map.get(c)) != null)
+				return out;
+			if ((out = findInterfaceMapping(map, c.getInterfaces())) != null)
+				return out;
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the value mapped to a set of interfaces, or their superinterfaces.
+	 * @param <V> the value type.
+	 * @param map the map of values by class.
+	 * @param interfaces the interfaces.
+	 * @return the value, or null if none.
+	 */
+	private static <V> V findInterfaceMapping(Map<Class<?>, V> map, Class<?>[] interfaces)
+	{
+		V out;
+		for (Class<?> i : interfaces)
+			if ((out = map.get(i)) != null)
+				return out;
+		for (Class<?> i : interfaces)
+			if ((out = findInterfaceMapping(map, i.getInterfaces())) != null)
+				return out;
+		return null;
+	}
+
 	@Override
 	public void sessionCreated(HttpSessionEvent httpse)
 	{
@@ -0,0 +1,312 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.blackrook.small.dispatch.controller.ControllerEntryPoint;
+import com.blackrook.small.enums.RequestMethod;
+import com.blackrook.small.multipart.Part;
+import com.blackrook.small.struct.HashDequeMap;
+import com.blackrook.small.struct.RequestURI;
+import com.blackrook.small.struct.URITrie;
+import com.blackrook.small.util.SmallRequestUtils;
+import com.blackrook.small.util.SmallUtils;
+
+/**
+ * The state of a single request, made once when the request comes in and passed along to every stage of it:
+ * the filters, the controller entry point, the response.
+ * It is also stored on the request (see {@link SmallRequestUtils#getRequestContext(HttpServletRequest)}).
+ * <p>A request context is only used by one thread at a time, and is not thread-safe.
+ * @author Matthew Tropiano
+ * @since 1.7.0
+ */
+public final class SmallRequestContext
+{
+	/** The largest argument arrays kept for reuse. */
+	private static final int MAX_ARGUMENTS = 8;
+	
+	/** The application environment. */
+	private SmallEnvironment environment;
+	/** The application configuration. */
+	private SmallConfiguration configuration;
+	/** The request method. */
+	private RequestMethod requestMethod;
+	/** The current request (filters may replace it). */
+	private HttpServletRequest request;
+	/** The current response (filters may replace it). */
+	private HttpServletResponse response;
+	/** The parsed request URI, parsed on first use. */
+	private RequestURI requestURI;
+	/** The route lookup result. */
+	private URITrie.Result<ControllerRoute> routeResult;
+	/** The controller entry point. */
+	private ControllerEntryPoint entryPoint;
+	/** The filter chain for the entry point. */
+	private ControllerFilterChain filterChain;
+	/** The path variable map. */
+	private Map<String, String> pathVariableMap;
+	/** The cookie map. */
+	private Map<String, Cookie> cookieMap;
+	/** The map of name to multipart parts. */
+	private HashDequeMap<String, Part> partMap;
+	/** The response so far. */
+	private SmallResponse smallResponse;
+	/** Argument arrays free for reuse, by length. */
+	private Object[][] freeArguments;
+
+	/**
+	 * Creates a new request context.
+	 * @param environment the application environment.
+	 * @param configuration the application configuration.
+	 * @param request the HTTP request.
+	 * @param response the HTTP response.
+	 */
+	SmallRequestContext(SmallEnvironment environment, SmallConfiguration configuration, HttpServletRequest request, HttpServletResponse response)
+	{
+		this.environment = environment;
+		this.configuration = configuration;
+		this.requestMethod = null;
+		this.request = request;
+		this.response = response;
+		this.requestURI = null;
+		this.routeResult = null;
+		this.entryPoint = null;
+		this.filterChain = null;
+		this.pathVariableMap = null;
+		this.cookieMap = null;
+		this.partMap = null;
+		this.smallResponse = null;
+		this.freeArguments = null;
+	}
+
+	/**
+	 * Creates a request context for a call made outside of the dispatcher servlet's own request handling.
+	 * The environment and configuration are found on the request's servlet context, on first use.
+	 * @param requestMethod the request method.
+	 * @param request the HTTP request.
+	 * @param response the HTTP response.
+	 * @param pathVariableMap the path variable map.
+	 * @param cookieMap the cookie map.
+	 * @param partMap the map of name to multipart parts. Can be null.
+	 * @return a new request context.
+	 */
+	public static SmallRequestContext create(
+		RequestMethod requestMethod, 
+		HttpServletRequest request, 
+		HttpServletResponse response, 
+		Map<String, String> pathVariableMap, 
+		Map<String, Cookie> cookieMap, 
+		HashDequeMap<String, Part> partMap
+	){
+		SmallRequestContext out = new SmallRequestContext(null, null, request, response);
+		out.requestMethod = requestMethod;
+		out.pathVariableMap = pathVariableMap;
+		out.cookieMap = cookieMap;
+		out.partMap = partMap;
+		return out;
+	}
+	
+	/**
+	 * @return the application environment.
+	 */
+	public SmallEnvironment getEnvironment()
+	{
+		return environment != null ? environment : (environment = SmallUtils.getEnvironment(request.getServletContext()));
+	}
+	
+	/**
+	 * @return the application configuration.
+	 */
+	public SmallConfiguration getConfiguration()
+	{
+		return configuration != null ? configuration : (configuration = SmallUtils.getConfiguration(request.getServletContext()));
+	}
+	
+	/**
+	 * @return the request method, or null if the request has not been routed.
+	 */
+	public RequestMethod getRequestMethod()
+	{
+		return requestMethod;
+	}
+	
+	/**
+	 * @return the current HTTP request (a filter may have replaced the original one).
+	 */
+	public HttpServletRequest getRequest()
+	{
+		return request;
+	}
+	
+	/**
+	 * @return the current HTTP response (a filter may have replaced the original one).
+	 */
+	public HttpServletResponse getResponse()
+	{
+		return response;
+	}
+	
+	/**
+	 * @return the parsed request URI.
+	 * @see SmallRequestUtils#getRequestURI(HttpServletRequest)
+	 */
+	public RequestURI getRequestURI()
+	{
+		return requestURI != null ? requestURI : (requestURI = SmallRequestUtils.getRequestURI(request));
+	}
+	
+	/**
+	 * @return the controller entry point that the request was routed to, or null if the request has not been routed.
+	 */
+	public ControllerEntryPoint getEntryPoint()
+	{
+		return entryPoint;
+	}
+	
+	/**
+	 * @return the path variable map, or null if the request has not been routed.
+	 */
+	public Map<String, String> getPathVariableMap()
+	{
+		return pathVariableMap;
+	}
+	
+	/**
+	 * @return the cookie map, or null if the request has not been routed.
+	 */
+	public Map<String, Cookie> getCookieMap()
+	{
+		return cookieMap;
+	}
+	
+	/**
+	 * @return the map of name to multipart parts, or null if this is not a multipart request.
+	 */
+	public HashDequeMap<String, Part> getPartMap()
+	{
+		return partMap;
+	}
+	
+	/**
+	 * @return the response so far, from the filters or the controller. Can be null.
+	 */
+	public SmallResponse getSmallResponse()
+	{
+		return smallResponse;
+	}
+	
+	/**
+	 * Gets an array for the arguments of an entry method call, 
+	 * reusing one that was released earlier in this request if there is one.
+	 * The array's contents are all null.
+	 * @param length the array length.
+	 * @return the array.
+	 * @see #releaseArguments(Object[])
+	 */
+	public Object[] getArguments(int length)
+	{
+		Object[] out;
+		if (length <= MAX_ARGUMENTS && freeArguments != null && (out = freeArguments[length]) != null)
+		{
+			freeArguments[length] = null;
+			return out;
+		}
+		return new Object[length];
+	}
+	
+	/**
+	 * Releases an argument array, so that a later call in this request may reuse it.
+	 * The array must not be used after this is called.
+	 * @param arguments the array from {@link #getArguments(int)}.
+	 */
+	public void releaseArguments(Object[] arguments)
+	{
+		if (arguments.length > MAX_ARGUMENTS)
+			return;
+		Arrays.fill(arguments, null);
+		if (freeArguments == null)
+			freeArguments = new Object[MAX_ARGUMENTS + 1][];
+		freeArguments[arguments.length] = arguments;
+	}
+	
+	/**
+	 * @return the route lookup result, or null if the request has not been routed.
+	 */
+	URITrie.Result<ControllerRoute> getRouteResult()
+	{
+		return routeResult;
+	}
+	
+	/**
+	 * @return the filter chain for the entry point, or null if the request has not been routed.
+	 */
+	ControllerFilterChain getFilterChain()
+	{
+		return filterChain;
+	}
+	
+	/**
+	 * Sets the routing of this request.
+	 * @param requestMethod the request method.
+	 * @param routeResult the route lookup result.
+	 * @param entryPoint the controller entry point.
+	 * @param filterChain the filter chain for the entry point.
+	 */
+	void setRoute(RequestMethod requestMethod, URITrie.Result<ControllerRoute> routeResult, ControllerEntryPoint entryPoint, ControllerFilterChain filterChain)
+	{
+		this.requestMethod = requestMethod;
+		this.routeResult = routeResult;
+		this.entryPoint = entryPoint;
+		this.filterChain = filterChain;
+	}
+	
+	/**
+	 * Sets what the filters and controller entry point read from this request.
+	 * @param pathVariableMap the path variable map.
+	 * @param cookieMap the cookie map.
+	 * @param partMap the map of name to multipart parts. Can be null.
+	 */
+	void setCallValues(Map<String, String> pathVariableMap, Map<String, Cookie> cookieMap, HashDequeMap<String, Part> partMap)
+	{
+		this.pathVariableMap = pathVariableMap;
+		this.cookieMap = cookieMap;
+		this.partMap = partMap;
+	}
+	
+	/**
+	 * @param request the new current request.
+	 */
+	void setRequest(HttpServletRequest request)
+	{
+		this.request = request;
+		this.requestURI = null;
+	}
+	
+	/**
+	 * @param response the new current response.
+	 */
+	void setResponse(HttpServletResponse response)
+	{
+		this.response = response;
+	}
+	
+	/**
+	 * @param smallResponse the response so far.
+	 */
+	void setSmallResponse(SmallResponse smallResponse)
+	{
+		this.smallResponse = smallResponse;
+	}
+	
+}
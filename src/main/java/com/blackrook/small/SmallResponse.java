@@ -8,14 +8,19 @@
 package com.blackrook.small;
 
 import java.text.SimpleDateFormat;
-import java.util.Collections;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.function.BiConsumer;
 
 /**
  * Generic response object for Small.
@@ -41,6 +46,19 @@ public interface SmallResponse extends AutoCloseable
 	 */
 	public Object getContent();
 
+	/**
+	 * Calls a function for each header value on this response, in the order that they should be added to the response.
+	 * Headers with more than one value are passed once per value.
+	 * @param consumer the function to call with each header name and value.
+	 * @since 1.7.0
+	 */
+	default void forEachHeader(BiConsumer<String, String> consumer)
+	{
+		for (Map.Entry<String, List<String>> header : getHeaders().entrySet())
+			for (String value : header.getValue())
+				consumer.accept(header.getKey(), value);
+	}
+
 	@Override
 	default void close() throws Exception
 	{
@@ -132,14 +150,14 @@ public interface SmallResponse extends AutoCloseable
 		GenericSmallResponse out = new GenericSmallResponse();
 		out.status(smallResponse.getStatus());
 		out.content(smallResponse.getContent());
-		for (Map.Entry<String, List<String>> header : smallResponse.getHeaders().entrySet())
-			for (String value : header.getValue())
-				out.addHeader(header.getKey(), value);
+		smallResponse.forEachHeader(out::addHeader);
 		return out;
 	}
 	
 	/**
 	 * Creates a generic response object for Small Responses.
+	 * <p>
+	 * Headers are kept in arrays of names and values, in the order that they were added.
 	 * @since 1.4.0
 	 */
 	public class GenericSmallResponse implements SmallResponse
@@ -151,17 +169,26 @@ public interface SmallResponse extends AutoCloseable
 			return out;
 		});
 
-		private static final Map<String, List<String>> EMPTY_HEADER_MAP 
-			= Collections.unmodifiableMap(new HashMap<String, List<String>>(2));
+		private static final String[] NO_HEADERS = new String[0];
 		
-		private Map<String, List<String>> headers;
+		/** Header names, in the order added. */
+		private String[] headerNames;
+		/** Header values, by header name index. */
+		private String[] headerValues;
+		/** Amount of header values. */
+		private int headerCount;
+		/** Map view of the headers, if requested. */
+		private Map<String, List<String>> headerMap;
 		private int status;
 		private Object content;
 		
 		private GenericSmallResponse()
 		{
 			this.status = 200;
-			this.headers = null;
+			this.headerNames = NO_HEADERS;
+			this.headerValues = NO_HEADERS;
+			this.headerCount = 0;
+			this.headerMap = null;
 			this.content = null;
 		}
 		
@@ -185,8 +212,7 @@ public interface SmallResponse extends AutoCloseable
 		 */
 		public GenericSmallResponse header(String headerName, String value)
 		{
-			if (headers != null && headers.containsKey(headerName))
-				headers.remove(headerName);
+			removeHeader(headerName);
 			return addHeader(headerName, value);
 		}
 		
@@ -224,15 +250,64 @@ public interface SmallResponse extends AutoCloseable
 		 */
 		public GenericSmallResponse addHeader(String headerName, String value)
 		{
-			if (headers == null)
-				headers = new HashMap<>();
-			List<String> valueList;
-			if ((valueList = headers.get(headerName)) == null)
-				headers.put(headerName, valueList = new LinkedList<>());
-			valueList.add(value);
+			if (headerCount == headerNames.length)
+			{
+				int capacity = Math.max(headerCount * 2, 4);
+				headerNames = Arrays.copyOf(headerNames, capacity);
+				headerValues = Arrays.copyOf(headerValues, capacity);
+			}
+			headerNames[headerCount] = headerName;
+			headerValues[headerCount] = value;
+			headerCount++;
 			return this;
 		}
 		
+		/**
+		 * Removes all of the values for a header.
+		 * @param headerName the header name.
+		 * @return the amount of values removed.
+		 */
+		private int removeHeader(String headerName)
+		{
+			int n = 0;
+			for (int i = 0; i < headerCount; i++)
+			{
+				if (headerNames[i].equals(headerName))
+					continue;
+				headerNames[n] = headerNames[i];
+				headerValues[n] = headerValues[i];
+				n++;
+			}
+			int out = headerCount - n;
+			for (int i = n; i < headerCount; i++)
+			{
+				headerNames[i] = null;
+				headerValues[i] = null;
+			}
+			headerCount = n;
+			return out;
+		}
+		
+		/**
+		 * Gets all of the values for a header.
+		 * @param headerName the header name.
+		 * @return the values, in the order added, or null if none.
+		 */
+		private List<String> getHeaderValues(Object headerName)
+		{
+			List<String> out = null;
+			for (int i = 0; i < headerCount; i++)
+			{
+				if (headerNames[i].equals(headerName))
+				{
+					if (out == null)
+						out = new ArrayList<>(2);
+					out.add(headerValues[i]);
+				}
+			}
+			return out;
+		}
+		
 		/**
 		 * Adds a header date value.
 		 * @param headerName the header name.
@@ -308,6 +383,20 @@ public interface SmallResponse extends AutoCloseable
 			return header("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
 		}
 		
+		/**
+		 * Checks if this response has a header.
+		 * @param headerName the header name.
+		 * @return true if it has at least one value for the header, false if not.
+		 * @since 1.7.0
+		 */
+		public boolean hasHeader(String headerName)
+		{
+			for (int i = 0; i < headerCount; i++)
+				if (headerNames[i].equals(headerName))
+					return true;
+			return false;
+		}
+		
 		/**
 		 * @return the status code.
 		 */
@@ -317,11 +406,22 @@ public interface SmallResponse extends AutoCloseable
 		}
 		
 		/**
-		 * @return the header map.
+		 * @return the header map. This is a view of this response's headers: 
+		 * changes to the map change the headers, but the value lists are copies.
 		 */
 		public Map<String, List<String>> getHeaders()
 		{
-			return headers != null ? headers : EMPTY_HEADER_MAP;
+			Map<String, List<String>> out;
+			if ((out = headerMap) == null)
+				headerMap = out = new HeaderMap();
+			return out;
+		}
+		
+		@Override
+		public void forEachHeader(BiConsumer<String, String> consumer)
+		{
+			for (int i = 0; i < headerCount; i++)
+				consumer.accept(headerNames[i], headerValues[i]);
 		}
 		
 		/**
@@ -339,6 +439,121 @@ public interface SmallResponse extends AutoCloseable
 				((AutoCloseable)content).close();
 		}
 		
+		/**
+		 * The map view of the headers, by header name.
+		 */
+		private class HeaderMap extends AbstractMap<String, List<String>>
+		{
+			@Override
+			public List<String> get(Object key)
+			{
+				return getHeaderValues(key);
+			}
+			
+			@Override
+			public boolean containsKey(Object key)
+			{
+				return key instanceof String && hasHeader((String)key);
+			}
+			
+			@Override
+			public List<String> put(String key, List<String> value)
+			{
+				List<String> out = remove(key);
+				for (String v : value)
+					addHeader(key, v);
+				return out;
+			}
+			
+			@Override
+			public List<String> remove(Object key)
+			{
+				List<String> out = getHeaderValues(key);
+				if (out != null)
+					removeHeader((String)key);
+				return out;
+			}
+			
+			@Override
+			public void clear()
+			{
+				Arrays.fill(headerNames, 0, headerCount, null);
+				Arrays.fill(headerValues, 0, headerCount, null);
+				headerCount = 0;
+			}
+			
+			@Override
+			public Set<Entry<String, List<String>>> entrySet()
+			{
+				return new AbstractSet<Entry<String, List<String>>>()
+				{
+					@Override
+					public Iterator<Entry<String, List<String>>> iterator()
+					{
+						return new HeaderIterator();
+					}
+
+					@Override
+					public int size()
+					{
+						int out = 0;
+						for (int i = 0; i < headerCount; i++)
+							if (isFirstHeader(i))
+								out++;
+						return out;
+					}
+				};
+			}
+			
+			/** Checks if a header value is the first one with its name. */
+			private boolean isFirstHeader(int index)
+			{
+				for (int i = 0; i < index; i++)
+					if (headerNames[i].equals(headerNames[index]))
+						return false;
+				return true;
+			}
+			
+			/** Iterates through each header name (in the order first added) and its values. */
+			private class HeaderIterator implements Iterator<Entry<String, List<String>>>
+			{
+				private int next = 0;
+				private String last = null;
+
+				@Override
+				public boolean hasNext()
+				{
+					while (next < headerCount && !isFirstHeader(next))
+						next++;
+					return next < headerCount;
+				}
+
+				@Override
+				public Entry<String, List<String>> next()
+				{
+					if (!hasNext())
+						throw new NoSuchElementException();
+					last = headerNames[next++];
+					return new SimpleImmutableEntry<>(last, getHeaderValues(last));
+				}
+
+				@Override
+				public void remove()
+				{
+					if (last == null)
+						throw new IllegalStateException();
+					// Removed values before the next one shift it down.
+					int index = 0;
+					for (int i = 0; i < next; i++)
+						if (!headerNames[i].equals(last))
+							index++;
+					removeHeader(last);
+					next = index;
+					last = null;
+				}
+			}
+		}
+		
 	}
 
 }
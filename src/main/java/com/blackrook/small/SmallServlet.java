@@ -12,11 +12,18 @@ import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.http.Cookie;
@@ -29,7 +36,6 @@ import javax.servlet.http.HttpSessionEvent;
 import javax.servlet.http.HttpSessionListener;
 
 import com.blackrook.small.dispatch.controller.ControllerEntryPoint;
-import com.blackrook.small.dispatch.filter.FilterComponent;
 import com.blackrook.small.dispatch.filter.FilterEntryPoint;
 import com.blackrook.small.dispatch.filter.FilterExitPoint;
 import com.blackrook.small.enums.RequestMethod;
@@ -47,7 +53,7 @@ import com.blackrook.small.multipart.MultipartFormDataParser;
 import com.blackrook.small.multipart.MultipartParser;
 import com.blackrook.small.multipart.Part;
 import com.blackrook.small.struct.HashDequeMap;
-import com.blackrook.small.struct.URITrie;
+import com.blackrook.small.struct.RequestURI;
 import com.blackrook.small.struct.Utils;
 import com.blackrook.small.struct.URITrie.Result;
 import com.blackrook.small.util.SmallRequestUtils;
@@ -74,9 +80,15 @@ public final class SmallServlet extends HttpServlet implements HttpSessionAttrib
 	private static final String HEADER_METHOD_OVERRIDE = "X-HTTP-Method-Override";
 	private static final Map<String, Cookie> EMPTY_COOKIE_MAP = Collections.unmodifiableMap(new HashMap<>(2));
 	private static final Map<String, String> EMPTY_PATH_VAR_MAP = Collections.unmodifiableMap(new HashMap<>(2));
+	/** Returned by calls in place of a response when an asynchronous call sends the response later. */
+	private static final SmallResponse ASYNC_RESPONSE = SmallResponse.create((Object)null);
 
 	/** The application environment. */
 	private SmallEnvironment environment;
+	/** The application configuration. */
+	private SmallConfiguration configuration;
+	/** Decides which uncaught exceptions are logged. */
+	private UncaughtExceptionLog exceptionLog;
 	
 	/**
 	 * Creates the dispatcher servlet. 
@@ -84,6 +96,8 @@ public final class SmallServlet extends HttpServlet implements HttpSessionAttrib
 	public SmallServlet()
 	{
 		this.environment = null;
+		this.configuration = null;
+		this.exceptionLog = null;
 	}
 	
 	@Override
@@ -91,6 +105,8 @@ public final class SmallServlet extends HttpServlet implements HttpSessionAttrib
 	{
 		super.init();
 		ServletContext servletContext = getServletContext();
+		configuration = SmallUtils.getConfiguration(servletContext);
+		exceptionLog = new UncaughtExceptionLog(configuration.getUncaughtExceptionLogInterval());
 		if ((environment = SmallUtils.getEnvironment(servletContext)) == null)
 		{
 			environment = createEnvironment(servletContext);
@@ -108,6 +124,7 @@ public final class SmallServlet extends HttpServlet implements HttpSessionAttrib
 	@Override
 	public void sessionCreated(HttpSessionEvent se)
 	{
+		SmallUtils.getSessionMutex(se.getSession());
 		environment.sessionCreated(se);
 	}
 
@@ -157,133 +174,218 @@ public final class SmallServlet extends HttpServlet implements HttpSessionAttrib
 	@Override
 	protected void service(HttpServletRequest request, HttpServletResponse response)
 	{
+		ExecutorService dispatchExecutor = environment.getDispatchExecutor();
+		if (dispatchExecutor != null && request.isAsyncSupported())
+		{
+			// Hand off the request - the container thread is released.
+			AsyncContext asyncContext = request.startAsync();
+			asyncContext.setTimeout(0L);
+			Runnable call = () -> 
+			{
+				try {
+					serviceCall(request, response);
+				} finally {
+					asyncContext.complete();
+				}
+			};
+			
+			try {
+				dispatchExecutor.execute(call);
+			} catch (RejectedExecutionException e) {
+				// Shutting down.
+				call.run();
+			}
+		}
+		else
+		{
+			serviceCall(request, response);
+		}
+	}
+
+	/**
+	 * Calls the entry point for a request and sends the response.
+	 * @param request the HTTP request.
+	 * @param response the HTTP response.
+	 */
+	private void serviceCall(HttpServletRequest request, HttpServletResponse response)
+	{
+		SmallRequestContext context = new SmallRequestContext(environment, configuration, request, response);
+		request.setAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_CONTEXT, context);
+
 		SmallResponse smallResponse = null;
+		Throwable exception = null;
+		try {
+			smallResponse = callMethod(context);
+		} catch (Throwable t) {
+			exception = t;
+		}
+		
+		// Asynchronous calls send their response when they complete.
+		if (smallResponse != ASYNC_RESPONSE)
+		{
+			// Synchronous calls send their response on the request and response that the servlet was called with.
+			context.setRequest(request);
+			context.setResponse(response);
+			sendResponse(context, smallResponse, exception);
+		}
+	}
+
+	/**
+	 * Sends the response for a call, or an error for the exception that it threw,
+	 * and then cleans up after the request.
+	 * @param context the request context.
+	 * @param smallResponse the response to send. If null, nothing is written to the response.
+	 * @param exception the exception thrown by the call, if any.
+	 */
+	private void sendResponse(SmallRequestContext context, SmallResponse smallResponse, Throwable exception)
+	{
+		HttpServletRequest request = context.getRequest();
+		HttpServletResponse response = context.getResponse();
 		try
 		{
-			if ((smallResponse = callMethod(request, response)) != null)
-				SmallUtils.sendContent(request, response, null, smallResponse);
+			if (exception != null)
+				throw exception;
+			if (smallResponse != null)
+				SmallUtils.sendContent(context, null, smallResponse);
 			// if null, nothing is written to the response (in this method).
 		}
 		// Servlet Exceptions
 		catch (NotFoundException e) 
 		{
-			getServletContext().log("An exception was uncaught: ", e);
+			logUncaught(context, e);
 			SmallResponseUtils.sendError(response, 404, e.getLocalizedMessage());
 		}
 		catch (MethodNotAllowedException e) 
 		{
-			getServletContext().log("An exception was uncaught: ", e);
+			logUncaught(context, e);
 			SmallResponseUtils.sendError(response, 405, e.getLocalizedMessage());
 		}
 		catch (BeanCreationException e) 
 		{
-			getServletContext().log("An exception was uncaught: ", e);
+			logUncaught(context, e);
 			SmallResponseUtils.sendError(response, 500, e.getLocalizedMessage());
 		}
 		catch (MultipartParserException e) 
 		{
-			getServletContext().log("An exception was uncaught: ", e);
+			logUncaught(context, e);
 			SmallResponseUtils.sendError(response, 400, e.getLocalizedMessage());
 		}
 		catch (NoConverterException e) 
 		{
-			getServletContext().log("An exception was uncaught: ", e);
+			logUncaught(context, e);
 			SmallResponseUtils.sendError(response, 501, e.getLocalizedMessage());
 		}
 		catch (UnsupportedMediaTypeException e) 
 		{
-			getServletContext().log("An exception was uncaught: ", e);
+			logUncaught(context, e);
 			SmallResponseUtils.sendError(response, 415, e.getLocalizedMessage());
 		}
 		catch (NoViewDriverException e) 
 		{
-			getServletContext().log("An exception was uncaught: ", e);
+			logUncaught(context, e);
 			SmallResponseUtils.sendError(response, 501, e.getLocalizedMessage());
 		}
 		catch (ViewProcessingException e) 
 		{
-			getServletContext().log("An exception was uncaught: ", e);
+			logUncaught(context, e);
 			SmallResponseUtils.sendError(response, 500, e.getLocalizedMessage());
 		}
 		catch (ManyRequestExceptionsException e) 
 		{
-			getServletContext().log("Many exceptions were uncaught:");
-			for (Throwable t : e.getCauses())
-				getServletContext().log("From ManyRequestExceptionsException:", t);
+			if (exceptionLog.admit(context, e) >= 0)
+			{
+				getServletContext().log("Many exceptions were uncaught:");
+				for (Throwable t : e.getCauses())
+					getServletContext().log("From ManyRequestExceptionsException:", t);
+			}
 			SmallResponseUtils.sendError(response, 500, e.getClass().getSimpleName() + ": " + e.getLocalizedMessage());
 		}
 		// I/O Exceptions
 		catch (IOException e) 
 		{
-			getServletContext().log("An exception was uncaught: ", e);
+			logUncaught(context, e);
 			SmallResponseUtils.sendError(response, 500, e.getClass().getSimpleName() + ": " + e.getLocalizedMessage());
 		}
 		// Other Exceptions
 		catch (Throwable e) 
 		{
-			getServletContext().log("An exception was uncaught: ", e);
+			logUncaught(context, e);
 			SmallResponseUtils.sendError(response, 500, e.getClass().getSimpleName() + ": " + e.getLocalizedMessage());
 		} 
 		finally 
 		{
-			// Close anything still open that the response may encapsulate.
-			Utils.close(smallResponse);
-			
-			// clean up files read in multipart parts.
-			@SuppressWarnings("unchecked")
-			List<Part> parts = (List<Part>)request.getAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_MULTIPART_LIST);
-			if (parts != null) for (Part part : parts) if (part.isFile())
-			{
-				part.getFile().delete();
-			}
+			cleanUp(request, smallResponse);
 		}
 	}
 
-	private Set<RequestMethod> getMethodsForPath(String path)
+	/**
+	 * Logs an uncaught exception, unless too many like it were logged recently.
+	 * @param context the request context.
+	 * @param exception the exception.
+	 * @see SmallConfiguration#getUncaughtExceptionLogInterval()
+	 */
+	private void logUncaught(SmallRequestContext context, Throwable exception)
 	{
-		Set<RequestMethod> out = new HashSet<>();
-		for (RequestMethod m : RequestMethod.values())
+		int skipped = exceptionLog.admit(context, exception);
+		if (skipped == 0)
+			getServletContext().log("An exception was uncaught: ", exception);
+		else if (skipped > 0)
+			getServletContext().log("An exception was uncaught (" + skipped + " more like it were not logged): ", exception);
+	}
+
+	/**
+	 * Cleans up after a request.
+	 * @param request the HTTP request.
+	 * @param smallResponse the response, if any.
+	 */
+	private static void cleanUp(HttpServletRequest request, SmallResponse smallResponse)
+	{
+		// Close anything still open that the response may encapsulate.
+		Utils.close(smallResponse);
+		
+		// clean up files read in multipart parts.
+		@SuppressWarnings("unchecked")
+		List<Part> parts = (List<Part>)request.getAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_MULTIPART_LIST);
+		if (parts != null) for (Part part : parts) if (part.isFile())
 		{
-			URITrie.Result<ControllerEntryPoint> result = environment.getControllerEntryPoint(m, path);
-			if (result != null && result.hasValue())
-				out.add(m);
+			part.getFile().delete();
 		}
-		return out;
 	}
 
-	private SmallResponse callMethod(HttpServletRequest request, HttpServletResponse response) throws Throwable
+	private SmallResponse callMethod(SmallRequestContext context) throws Throwable
 	{
+		HttpServletRequest request = context.getRequest();
+		HttpServletResponse response = context.getResponse();
 		try {
 			String method = request.getMethod();
 			switch (method)
 			{
 				case METHOD_GET:
-					return callControllerEntry(request, response, RequestMethod.GET, null);
+					return callControllerEntry(context, RequestMethod.GET, null);
 				case METHOD_DELETE:
-					return callControllerEntry(request, response, RequestMethod.DELETE, null);
+					return callControllerEntry(context, RequestMethod.DELETE, null);
 				case METHOD_POST:
-					return callPost(request, response);
+					return callPost(context);
 				case METHOD_PUT:
-					return callPut(request, response);
+					return callPut(context);
 				case METHOD_PATCH:
-					return callPatch(request, response);
+					return callPatch(context);
 				case METHOD_HEAD:
-					callHead(request, response);
-					return null;
+					return callHead(context);
 				case METHOD_OPTIONS:
-					if (!SmallUtils.getConfiguration(getServletContext()).allowOptions())
-						throw new MethodNotAllowedException("HTTP method OPTIONS not allowed.");
+					if (!configuration.allowOptions())
+						throw new MethodNotAllowedException("HTTP method OPTIONS not allowed.", false);
 					else
-						callOptions(request, response);
+						callOptions(context);
 					return null;
 				case METHOD_TRACE:
-					if (!SmallUtils.getConfiguration(getServletContext()).allowTrace())
-						throw new MethodNotAllowedException("HTTP method TRACE not allowed.");
+					if (!configuration.allowTrace())
+						throw new MethodNotAllowedException("HTTP method TRACE not allowed.", false);
 					else
 						super.doTrace(request, response);
 					return null;
 				default:
-					throw new MethodNotAllowedException("HTTP method " + method + " not allowed.");
+					throw new MethodNotAllowedException("HTTP method " + method + " not allowed.", false);
 			}
 		} catch (Throwable t) {
 			if (!environment.handleException(request, response, t))
@@ -294,68 +396,61 @@ public final class SmallServlet extends HttpServlet implements HttpSessionAttrib
 
 	}
 
-	private void callHead(HttpServletRequest request, HttpServletResponse response) throws Throwable
+	private SmallResponse callHead(SmallRequestContext context) throws Throwable
 	{
+		HttpServletResponse response = context.getResponse();
 		// HEAD is a GET with no body.
-		callControllerEntry(request, response, RequestMethod.GET, null);
+		SmallResponse smallResponse = callControllerEntry(context, RequestMethod.GET, null);
 		response.setContentLength(0);
+		return smallResponse == ASYNC_RESPONSE ? smallResponse : null;
 	}
 
-	private void callOptions(HttpServletRequest request, HttpServletResponse response)
+	private void callOptions(SmallRequestContext context)
 	{
 		// OPTIONS sends back a header with allowed methods.
-		StringBuilder sb = new StringBuilder();
-		String path = SmallUtils.trimSlashes(SmallRequestUtils.getPath(request));
-		SmallConfiguration config = SmallUtils.getConfiguration(getServletContext());
-		
-		for (RequestMethod m : getMethodsForPath(path))
-		{
-			sb.append(sb.length() > 0 ? ", " : "").append(m.name());
-			if (m == RequestMethod.GET)
-				sb.append(sb.length() > 0 ? ", " : "").append("HEAD");
-		}
-		if (config.allowOptions())
-			sb.append(sb.length() > 0 ? ", " : "").append("OPTIONS");
-		if (config.allowTrace())
-			sb.append(sb.length() > 0 ? ", " : "").append("TRACE");
-			
-		if (sb.length() > 0)
-			response.setHeader("Allow", sb.toString());
+		String path = context.getRequestURI().getRoutingKey();
+		ControllerRouteTable routeTable = environment.getControllerRouteTable();
+		String allow = routeTable.getAllowedRoute(path, routeTable.getControllerRoute(RequestMethod.GET, path)).getAllowHeader();
+		if (allow != null)
+			context.getResponse().setHeader("Allow", allow);
 	}
 	
-	private SmallResponse callPost(HttpServletRequest request, HttpServletResponse response) throws Throwable
+	private SmallResponse callPost(SmallRequestContext context) throws Throwable
 	{
-		if (SmallUtils.getConfiguration(request.getServletContext()).autoParseMultipart() && MultipartFormDataParser.isMultipart(request))
-			return callMultipart(RequestMethod.POST, request, response);
+		HttpServletRequest request = context.getRequest();
+		if (configuration.autoParseMultipart() && MultipartFormDataParser.isMultipart(request))
+			return callMultipart(context, RequestMethod.POST);
 		else if (METHOD_PATCH.equalsIgnoreCase(request.getHeader(HEADER_METHOD_OVERRIDE)))
-			return callControllerEntry(request, response, RequestMethod.PATCH, null);
+			return callControllerEntry(context, RequestMethod.PATCH, null);
 		else
-			return callControllerEntry(request, response, RequestMethod.POST, null);
+			return callControllerEntry(context, RequestMethod.POST, null);
 	}
 
-	private SmallResponse callPut(HttpServletRequest request, HttpServletResponse response) throws Throwable
+	private SmallResponse callPut(SmallRequestContext context) throws Throwable
 	{
-		if (SmallUtils.getConfiguration(request.getServletContext()).autoParseMultipart() && MultipartFormDataParser.isMultipart(request))
-			return callMultipart(RequestMethod.PUT, request, response);
+		HttpServletRequest request = context.getRequest();
+		if (configuration.autoParseMultipart() && MultipartFormDataParser.isMultipart(request))
+			return callMultipart(context, RequestMethod.PUT);
 		else if (METHOD_PATCH.equalsIgnoreCase(request.getHeader(HEADER_METHOD_OVERRIDE)))
-			return callControllerEntry(request, response, RequestMethod.PATCH, null);
+			return callControllerEntry(context, RequestMethod.PATCH, null);
 		else
-			return callControllerEntry(request, response, RequestMethod.PUT, null);
+			return callControllerEntry(context, RequestMethod.PUT, null);
 	}
 
-	private SmallResponse callPatch(HttpServletRequest request, HttpServletResponse response) throws Throwable
+	private SmallResponse callPatch(SmallRequestContext context) throws Throwable
 	{
-		if (SmallUtils.getConfiguration(request.getServletContext()).autoParseMultipart() && MultipartFormDataParser.isMultipart(request))
-			return callMultipart(RequestMethod.PATCH, request, response);
+		if (configuration.autoParseMultipart() && MultipartFormDataParser.isMultipart(context.getRequest()))
+			return callMultipart(context, RequestMethod.PATCH);
 		else
-			return callControllerEntry(request, response, RequestMethod.PATCH, null);
+			return callControllerEntry(context, RequestMethod.PATCH, null);
 	}
 
-	private SmallResponse callMultipart(RequestMethod method, HttpServletRequest request, HttpServletResponse response) throws Throwable
+	private SmallResponse callMultipart(SmallRequestContext context, RequestMethod method) throws Throwable
 	{
+		HttpServletRequest request = context.getRequest();
 		MultipartParser parser = SmallRequestUtils.getMultipartParser(request);
 		if (parser == null)
-			throw new UnsupportedMediaTypeException("The " + request.getContentType() + " request type is not supported for multipart requests.");
+			throw new UnsupportedMediaTypeException("The " + request.getContentType() + " request type is not supported for multipart requests.", false);
 		else
 		{
 			parser.parse(request, environment.getTemporaryDirectory());
@@ -366,82 +461,75 @@ public final class SmallServlet extends HttpServlet implements HttpSessionAttrib
 			HashDequeMap<String, Part> partMap = new HashDequeMap<>();
 			for (Part part : parts)
 				partMap.addLast(part.getName(), part);
-			return callControllerEntry(request, response, method, partMap);
+			return callControllerEntry(context, method, partMap);
 		}
 	}
 	
-	private SmallResponse callControllerEntry(
-		HttpServletRequest request, 
-		HttpServletResponse response, 
-		RequestMethod requestMethod, 
-		HashDequeMap<String, Part> multiformPartMap
-	) throws Throwable {
-		String path = SmallRequestUtils.getPath(request);
+	private SmallResponse callControllerEntry(SmallRequestContext context, RequestMethod requestMethod, HashDequeMap<String, Part> multiformPartMap) throws Throwable 
+	{
+		HttpServletRequest request = context.getRequest();
+		RequestURI requestURI = context.getRequestURI();
+		String path = requestURI.getRoutingKey();
 		
-		Result<ControllerEntryPoint> result = environment.getControllerEntryPoint(requestMethod, path);
+		ControllerRouteTable routeTable = environment.getControllerRouteTable();
+		Result<ControllerRoute> result = routeTable.getControllerRoute(requestMethod, path);
+		ControllerEntryPoint entryPoint = result.hasValue() ? result.getValue().getEntryPoint(requestMethod) : null;
 		
-		if (result == null || !result.hasValue())
+		if (entryPoint == null)
 		{
-			if (getMethodsForPath(path).isEmpty())
-				throw new NotFoundException("Not found. No handler for "+requestMethod.name()+ " '"+path+"'");
+			if (routeTable.getAllowedRoute(path, result).isEmpty())
+				throw new NotFoundException("Not found. No handler for "+requestMethod.name()+ " '"+requestURI.getPath()+"'", false);
 			else
-				throw new MethodNotAllowedException("Method " + requestMethod.name() + " not allowed.");
-		}
-		
-		// get cookies from request.
-		Map<String, Cookie> cookieMap = null;
-		Cookie[] cookies = request.getCookies();
-		if (cookies != null)
-		{
-			cookieMap = new HashMap<String, Cookie>();
-			for (Cookie c : cookies)
-				cookieMap.put(c.getName(), c);
+				throw new MethodNotAllowedException("Method " + requestMethod.name() + " not allowed.", false);
 		}
+
+		ControllerFilterChain filterChain = result.getValue().getFilterChain(requestMethod);
+		context.setRoute(requestMethod, result, entryPoint, filterChain);
+
+		// get cookies from request, if anything on this route reads them.
+		Map<String, Cookie> cookieMap;
+		if (entryPoint.usesCookies() || filterChain.usesCookies())
+			cookieMap = new RequestCookieMap(request);
 		else
-		{
 			cookieMap = EMPTY_COOKIE_MAP;
-		}
-		
+				
 		// Get path variables.
-		Map<String, String> pathVariables = result.getPathVariables();
+		Map<String, String> pathVariables = result.getValue().getPathVariables(requestMethod, result);
 		if (pathVariables == null)
 			pathVariables = EMPTY_PATH_VAR_MAP;
+		context.setCallValues(pathVariables, cookieMap, multiformPartMap);
 		
-		ControllerEntryPoint entryPoint = result.getValue();
-		Class<?>[] filterChain = entryPoint.getFilterChain();
-
-		if (result.getRemainder() != null)
-			request.setAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_PATH_REMAINDER, result.getRemainder() + SmallRequestUtils.getPathExtension(request));
+		if (result.getRemainderStart() >= 0)
+			request.setAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_PATH_REMAINDER, requestURI.getPathRemainder(result.getRemainderStart()));
 
 		int f = 0;
 		Throwable exception = null;
-		SmallResponse smallResponse = null;
-		
-		// Forward filter chain.
+				
+		// Forward filter chain (f is the chain position reached).
+		FilterEntryPoint[] filterEntries = filterChain.getEntryPoints();
 		try {
-			for (; f < filterChain.length; f++)
+			int i = 0;
+			for (; i < filterEntries.length; i++)
 			{
-				FilterComponent filterProfile = environment.getFilter(filterChain[f]);
-				FilterEntryPoint entry = filterProfile.getEntryMethod();
-				if (entry != null)
+				f = filterChain.getEntryPosition(i);
+				SmallFilterResult filterResult = filterEntries[i].handleCall(context);
+				if (filterResult == null || !filterResult.isPassing())
+					break;
+				HttpServletRequest newRequest = filterResult.getRequest();
+				if (newRequest != null)
+					context.setRequest(newRequest);
+				HttpServletResponse newResponse = filterResult.getResponse();
+				if (newResponse != null)
+					context.setResponse(newResponse);
+				
+				if (filterResult.getSmallResponse() != null)
 				{
-					SmallFilterResult filterResult = entry.handleCall(requestMethod, request, response, pathVariables, cookieMap, multiformPartMap);
-					if (filterResult == null || !filterResult.isPassing())
-						break;
-					HttpServletRequest newRequest = filterResult.getRequest();
-					if (newRequest != null)
-						request = newRequest;
-					HttpServletResponse newResponse = filterResult.getResponse();
-					if (newResponse != null)
-						response = newResponse;
-					
-					if (filterResult.getSmallResponse() != null)
-					{
-						request.setAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_RESPONSE_OBJECT, filterResult.getSmallResponse());
-						smallResponse = filterResult.getSmallResponse();
-					}
+					context.getRequest().setAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_RESPONSE_OBJECT, filterResult.getSmallResponse());
+					context.setSmallResponse(filterResult.getSmallResponse());
 				}
 			}
+			if (i == filterEntries.length)
+				f = filterChain.getLength();
 		} catch (InvocationTargetException e) {
 			exception = accumExceptions(exception, e.getCause());
 		} catch (ServletException e) {
@@ -451,14 +539,33 @@ public final class SmallServlet extends HttpServlet implements HttpSessionAttrib
 		}
 	
 		// Call controller entry if all filters passed.
-		if (f == filterChain.length)
+		if (f == filterChain.getLength())
 		{
 			try {
-				SmallResponse controllerResponse = entryPoint.handleCall(requestMethod, request, response, pathVariables, cookieMap, multiformPartMap);
+				SmallResponse controllerResponse;
+				if (entryPoint.isAsync())
+				{
+					CompletableFuture<SmallResponse> future = entryPoint.handleAsyncCall(context).toCompletableFuture();
+					HttpServletRequest asyncRequest = context.getRequest();
+					if (!future.isDone() && asyncRequest.isAsyncSupported() && !asyncRequest.isAsyncStarted())
+					{
+						// The rest of the call happens when the result is ready.
+						AsyncCall asyncCall = new AsyncCall(asyncRequest.startAsync(), context);
+						asyncCall.asyncContext.addListener(asyncCall);
+						future.whenComplete(asyncCall::complete);
+						return ASYNC_RESPONSE;
+					}
+					controllerResponse = getResult(future);
+				}
+				else
+				{
+					controllerResponse = entryPoint.handleCall(context);
+				}
+				
 				if (controllerResponse != null)
 				{
-					request.setAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_RESPONSE_OBJECT, controllerResponse);
-					smallResponse = controllerResponse;
+					context.getRequest().setAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_RESPONSE_OBJECT, controllerResponse);
+					context.setSmallResponse(controllerResponse);
 				}
 			} catch (InvocationTargetException e) {
 				exception = accumExceptions(exception, e.getCause());
@@ -469,25 +576,168 @@ public final class SmallServlet extends HttpServlet implements HttpSessionAttrib
 			}
 		}
 		
-		// Backward filter chain.
-		for (f = f - 1; f >= 0; f--)
+		exception = callFilterExits(context, f, exception);
+
+		if (exception != null)
+			throw exception;
+		else
+			return context.getSmallResponse();
+	}
+	
+	/**
+	 * Calls the backward filter chain, from the filters before the position reached.
+	 * @param context the request context.
+	 * @param f the filter chain position reached.
+	 * @param exception the exceptions accumulated so far, if any.
+	 * @return the exceptions accumulated.
+	 * @throws ServletException if a filter exit throws one.
+	 * @throws IOException if a filter exit throws one.
+	 */
+	private Throwable callFilterExits(SmallRequestContext context, int f, Throwable exception) throws ServletException, IOException 
+	{
+		ControllerFilterChain filterChain = context.getFilterChain();
+		FilterExitPoint[] filterExits = filterChain.getExitPoints();
+		for (int x = filterExits.length - 1; x >= 0; x--)
+		{
+			if (filterChain.getExitPosition(x) >= f)
+				continue;
+			try {
+				filterExits[x].handleCall(context);
+			} catch (InvocationTargetException e) {
+				exception = accumExceptions(exception, e.getCause());
+			}
+		}
+		return exception;
+	}
+
+	/**
+	 * Gets the result of a completed (or synchronously awaited) asynchronous entry point call.
+	 * @param future the future result.
+	 * @return the response.
+	 * @throws InvocationTargetException if the call completed exceptionally.
+	 */
+	private static SmallResponse getResult(CompletableFuture<SmallResponse> future) throws InvocationTargetException
+	{
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			throw new InvocationTargetException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InvocationTargetException(e);
+		}
+	}
+	
+	
+	/**
+	 * The rest of a controller call on an asynchronous entry point,
+	 * done when the entry point's result is ready.
+	 */
+	private class AsyncCall implements AsyncListener
+	{
+		private AsyncContext asyncContext;
+		/** The request context (the response so far is from filters). */
+		private SmallRequestContext context;
+		/** Set when the call is finished, by result or by timeout. */
+		private AtomicBoolean finished;
+		
+		private AsyncCall(AsyncContext asyncContext, SmallRequestContext context)
+		{
+			this.asyncContext = asyncContext;
+			this.context = context;
+			this.finished = new AtomicBoolean(false);
+		}
+		
+		/**
+		 * Finishes the call with the entry point's result:
+		 * calls the filter exits, and sends the response or handles the exception.
+		 * @param controllerResponse the entry point response.
+		 * @param throwable the exception that the entry point's result completed with, if any.
+		 */
+		private void complete(SmallResponse controllerResponse, Throwable throwable)
 		{
-			FilterComponent filterProfile = environment.getFilter(filterChain[f]);
-			FilterExitPoint exit = filterProfile.getExitMethod();
-			if (exit != null)
+			if (!finished.compareAndSet(false, true))
 			{
-				try {
-					exit.handleCall(requestMethod, request, response, pathVariables, cookieMap, multiformPartMap);
-				} catch (InvocationTargetException e) {
-					exception = accumExceptions(exception, e.getCause());
+				Utils.close(controllerResponse);
+				return;
+			}
+			
+			HttpServletRequest request = context.getRequest();
+			HttpServletResponse response = context.getResponse();
+			Throwable exception = null;
+			try {
+				if (throwable != null)
+				{
+					exception = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
 				}
+				else if (controllerResponse != null)
+				{
+					request.setAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_RESPONSE_OBJECT, controllerResponse);
+					context.setSmallResponse(controllerResponse);
+				}
+				exception = callFilterExits(context, context.getFilterChain().getLength(), exception);
+				if (exception != null && environment.handleException(request, response, exception))
+				{
+					exception = null;
+					Utils.close(context.getSmallResponse());
+					context.setSmallResponse(null);
+				}
+			} catch (Throwable t) {
+				exception = t;
+			}
+			
+			try {
+				// HEAD is a GET with no body.
+				if (exception == null && METHOD_HEAD.equals(request.getMethod()))
+				{
+					Utils.close(context.getSmallResponse());
+					context.setSmallResponse(null);
+				}
+				sendResponse(context, context.getSmallResponse(), exception);
+			} finally {
+				asyncContext.complete();
 			}
 		}
+		
+		@Override
+		public void onTimeout(AsyncEvent event) throws IOException
+		{
+			if (!finished.compareAndSet(false, true))
+				return;
 
-		if (exception != null)
-			throw exception;
-		else
-			return smallResponse;
+			try {
+				Throwable exception = callFilterExits(context, context.getFilterChain().getLength(), null);
+				if (exception != null)
+					logUncaught(context, exception);
+			} catch (Throwable t) {
+				logUncaught(context, t);
+			}
+			
+			try {
+				SmallResponseUtils.sendError(context.getResponse(), 503, "Timed out waiting for a response.");
+			} finally {
+				cleanUp(context.getRequest(), context.getSmallResponse());
+				asyncContext.complete();
+			}
+		}
+
+		@Override
+		public void onError(AsyncEvent event) throws IOException
+		{
+			complete(null, event.getThrowable());
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) throws IOException
+		{
+			// Do nothing.
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) throws IOException
+		{
+			// Do nothing.
+		}
 	}
 	
 	private Throwable accumExceptions(Throwable source, Throwable t)
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.blackrook.small.dispatch.controller.ControllerEntryPoint;
+
+/**
+ * Decides which uncaught exceptions get logged, so that bursts of the same exception 
+ * on the same controller entry point are logged once per interval.
+ * @author Matthew Tropiano
+ */
+final class UncaughtExceptionLog
+{
+	/** The most keys to track before expired ones are removed. */
+	private static final int MAX_KEYS = 1024;
+
+	/** Minimum time between logged exceptions with the same key. */
+	private long intervalMillis;
+	/** Logging state by key. */
+	private Map<Key, Entry> entries;
+	/** The earliest time that expired entries are looked for again. */
+	private volatile long nextEvictTime;
+
+	/** An exception type and the entry point it came from (null if the request was not routed). */
+	private static class Key
+	{
+		private Class<?> type;
+		private ControllerEntryPoint entryPoint;
+		
+		private Key(Class<?> type, ControllerEntryPoint entryPoint)
+		{
+			this.type = type;
+			this.entryPoint = entryPoint;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return type.hashCode() * 31 + System.identityHashCode(entryPoint);
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof Key))
+				return false;
+			Key key = (Key)obj;
+			return type == key.type && entryPoint == key.entryPoint;
+		}
+	}
+	
+	/** Logging state for one key. */
+	private static class Entry
+	{
+		private long nextLogTime;
+		private int skipped;
+	}
+
+	/**
+	 * Creates a new exception log filter.
+	 * @param intervalMillis the minimum time between logged exceptions of the same type on the same entry point (0 or less is no limit).
+	 */
+	UncaughtExceptionLog(long intervalMillis)
+	{
+		this.intervalMillis = intervalMillis;
+		this.entries = new ConcurrentHashMap<>();
+		this.nextEvictTime = 0L;
+	}
+
+	/**
+	 * Checks if an uncaught exception should be logged.
+	 * Exceptions are told apart by type and by the controller entry point that the request was routed to 
+	 * (one for each route and method), not by the request path, so requests for paths that were not routed 
+	 * (such as ones that were not found) only count by type.
+	 * @param context the request context that the exception came from.
+	 * @param exception the exception.
+	 * @return the amount of exceptions like this one that were not logged since the last one that was, or -1 if this one should not be logged.
+	 */
+	int admit(SmallRequestContext context, Throwable exception)
+	{
+		if (intervalMillis <= 0L)
+			return 0;
+		
+		long now = System.currentTimeMillis();
+		Key key = new Key(exception.getClass(), context.getEntryPoint());
+		Entry entry;
+		if ((entry = entries.get(key)) == null)
+		{
+			if (entries.size() >= MAX_KEYS && !evict(now))
+				key = new Key(exception.getClass(), null);
+			entry = entries.computeIfAbsent(key, (k) -> new Entry());
+		}
+		
+		synchronized (entry)
+		{
+			if (now < entry.nextLogTime)
+			{
+				entry.skipped++;
+				return -1;
+			}
+			entry.nextLogTime = now + intervalMillis;
+			int out = entry.skipped;
+			entry.skipped = 0;
+			return out;
+		}
+	}
+
+	/**
+	 * Removes the entries that exceptions would be logged on again (their interval has passed),
+	 * at most once per interval.
+	 * @param now the current time in milliseconds.
+	 * @return true if there is room for a new entry after this, false if not.
+	 */
+	private boolean evict(long now)
+	{
+		if (now >= nextEvictTime)
+		{
+			nextEvictTime = now + intervalMillis;
+			entries.values().removeIf((entry) -> 
+			{
+				synchronized (entry)
+				{
+					return now >= entry.nextLogTime;
+				}
+			});
+		}
+		return entries.size() < MAX_KEYS;
+	}
+
+}
@@ -21,13 +21,18 @@ import com.blackrook.small.enums.ScopeType;
 /**
  * Annotates a controller method or method parameter for scope attribute binding. Should be used in {@link Controller}s and {@link Filter}s.
  * <p>
+ * On a method, it's the method to call to construct the attribute of a matching name.
+ * <p>
+ * On a parameter, it's the attribute itself.
+ * <p>
  * Matched type is NOT converted. Any value created by this parameter is persisted to the scope declared. Default is {@link ScopeType#REQUEST}.
- * Any value that does not already exist is created (via default constructor or matching annotated method in the same class).
+ * Any value that does not already exist is created (via default constructor or matching annotated method in the same class),
+ * so a constructor method is called once per request, session, or application, depending on scope.
  * @author Matthew Tropiano
  * @see EntryPath
  * @see FilterEntry
  */
-@Target(ElementType.PARAMETER)
+@Target({ElementType.PARAMETER, ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Attribute
 {
@@ -35,4 +40,13 @@ public @interface Attribute
 	String value();
 	/** @return the preferred scope to use to search for the matching attribute. */
 	ScopeType scope() default ScopeType.REQUEST;
+	/** 
+	 * On a constructor method, the amount of milliseconds that an {@link ScopeType#APPLICATION}-scoped value 
+	 * stays current before the method is called again to refresh it. Until the new value is built, 
+	 * other requests still get the old one.
+	 * Zero or less means that the value is never refreshed.
+	 * @return the refresh interval in milliseconds.
+	 * @since 1.7.0
+	 */
+	long refreshMillis() default 0L;
 }
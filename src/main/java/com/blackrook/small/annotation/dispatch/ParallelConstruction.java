@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.annotation.dispatch;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.blackrook.small.SmallEnvironment;
+import com.blackrook.small.annotation.Controller;
+import com.blackrook.small.annotation.Filter;
+import com.blackrook.small.annotation.controller.EntryPath;
+import com.blackrook.small.annotation.filter.FilterEntry;
+
+/**
+ * If placed on a {@link Controller} or {@link Filter} method, the {@link Model} and {@link Attribute} parameters 
+ * that are built by constructor methods are built at the same time, on the environment's 
+ * {@link SmallEnvironment#getConstructorExecutor() constructor executor}. 
+ * The method is called once all of them are built.
+ * <p>
+ * Only the constructor methods themselves are called on other threads: deciding what to build, binding the
+ * constructor methods' parameters, and storing the built values in their scopes are all done on the request's thread.
+ * The constructor methods must not depend on each other (for example, by reading another model or attribute 
+ * that is built at the same time), and must not use request objects that they take as parameters 
+ * ({@link javax.servlet.http.HttpServletRequest}, {@link javax.servlet.http.HttpSession}, and so on), 
+ * as those are not safe to use from other threads. 
+ * Session and application attributes are still built once: a request that builds a missing session attribute holds 
+ * the session's mutex until it is stored, and an application attribute that another request is already building 
+ * is waited for instead of built again.
+ * @author Matthew Tropiano
+ * @see EntryPath
+ * @see FilterEntry
+ * @since 1.7.0
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ParallelConstruction {}
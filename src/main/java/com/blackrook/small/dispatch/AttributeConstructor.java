@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.dispatch;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An attribute constructor method and its application-scope build and refresh state.
+ * @author Matthew Tropiano
+ */
+final class AttributeConstructor
+{
+	/** The attribute name. */
+	private String name;
+	/** The constructor method. */
+	private DispatchEntryPoint<?> entryPoint;
+	/** Refresh interval in milliseconds for application-scoped values (0 or less is never). */
+	private long refreshMillis;
+	/** Time that the application-scoped value was last built. */
+	private volatile long buildTime;
+	/** Set while an application-scoped value is being refreshed. */
+	private AtomicBoolean refreshing;
+	/** Held while an application-scoped value is first built. */
+	private ReentrantLock buildLock;
+
+	AttributeConstructor(String name, DispatchEntryPoint<?> entryPoint, long refreshMillis)
+	{
+		this.name = name;
+		this.entryPoint = entryPoint;
+		this.refreshMillis = refreshMillis;
+		this.buildTime = 0L;
+		this.refreshing = new AtomicBoolean(false);
+		this.buildLock = new ReentrantLock();
+	}
+
+	/**
+	 * @return the attribute name.
+	 */
+	String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * @return the constructor method.
+	 */
+	DispatchEntryPoint<?> getEntryPoint()
+	{
+		return entryPoint;
+	}
+
+	/**
+	 * @param now the current time in milliseconds.
+	 * @return true if a built application-scoped value is past its refresh interval, false otherwise.
+	 */
+	boolean isExpired(long now)
+	{
+		return refreshMillis > 0L && now - buildTime >= refreshMillis;
+	}
+
+	/**
+	 * Claims the first build of an application-scoped value, waiting for the caller that claimed it, if any.
+	 * The caller must check that the value is still missing once this returns.
+	 */
+	void lockBuild()
+	{
+		buildLock.lock();
+	}
+
+	/**
+	 * Claims the first build of an application-scoped value, if no other caller has.
+	 * The caller must check that the value is still missing if this returns true.
+	 * @return true if claimed, false if another caller is building the value.
+	 */
+	boolean tryLockBuild()
+	{
+		return buildLock.tryLock();
+	}
+
+	/**
+	 * Releases the claim on the first build of an application-scoped value.
+	 */
+	void unlockBuild()
+	{
+		buildLock.unlock();
+	}
+
+	/**
+	 * Claims an expired value's refresh, so that only one caller rebuilds it.
+	 * @return true if the caller should rebuild the value, false if another caller already is.
+	 */
+	boolean startRefresh()
+	{
+		return refreshing.compareAndSet(false, true);
+	}
+
+	/**
+	 * Marks the end of a refresh or first build.
+	 * @param built if true, the value was built, and its refresh interval starts over.
+	 */
+	void finishRefresh(boolean built)
+	{
+		if (built)
+			buildTime = System.currentTimeMillis();
+		refreshing.set(false);
+	}
+
+}
@@ -29,7 +29,7 @@ public abstract class DispatchComponent extends SmallComponent
 	/** Model map. */
 	private Map<String, DispatchEntryPoint<?>> modelMap;
 	/** Attribute map. */
-	private Map<String, DispatchEntryPoint<?>> attributeMap;
+	private Map<String, AttributeConstructor> attributeMap;
 
 	protected DispatchComponent(Object instance)
 	{
@@ -53,7 +53,7 @@ public abstract class DispatchComponent extends SmallComponent
 		else if (isValidAttributeConstructorMethod(method))
 		{
 			Attribute anno = method.getAnnotation(Attribute.class);
-			attributeMap.put(anno.value(), new DispatchEntryPoint<>(this, method));
+			attributeMap.put(anno.value(), new AttributeConstructor(anno.value(), new DispatchEntryPoint<>(this, method), anno.refreshMillis()));
 		}
 		else if (method.isAnnotationPresent(Attribute.class))
 		{
@@ -69,6 +69,17 @@ public abstract class DispatchComponent extends SmallComponent
 	 * @return the corresponding entry point, or null if no such entry point.
 	 */
 	public DispatchEntryPoint<?> getAttributeConstructor(String attribName)
+	{
+		AttributeConstructor constructor = attributeMap.get(attribName);
+		return constructor != null ? constructor.getEntryPoint() : null;
+	}
+
+	/**
+	 * Gets the constructor for an attribute, plus its refresh state. 
+	 * @param attribName the attribute name.
+	 * @return the corresponding constructor, or null if no such constructor.
+	 */
+	AttributeConstructor findAttributeConstructor(String attribName)
 	{
 		return attributeMap.get(attribName);
 	}
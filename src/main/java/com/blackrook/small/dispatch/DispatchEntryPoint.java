@@ -20,6 +20,11 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
@@ -29,10 +34,13 @@ import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
 import com.blackrook.small.SmallConstants;
+import com.blackrook.small.SmallEnvironment;
+import com.blackrook.small.SmallRequestContext;
 import com.blackrook.small.SmallResponse;
 import com.blackrook.small.annotation.controller.Content;
 import com.blackrook.small.annotation.dispatch.Attribute;
 import com.blackrook.small.annotation.dispatch.Model;
+import com.blackrook.small.annotation.dispatch.ParallelConstruction;
 import com.blackrook.small.annotation.parameters.AutoTrim;
 import com.blackrook.small.annotation.parameters.CookieParameter;
 import com.blackrook.small.annotation.parameters.Header;
@@ -53,6 +61,9 @@ import com.blackrook.small.multipart.Part;
 import com.blackrook.small.roles.JSONDriver;
 import com.blackrook.small.roles.XMLDriver;
 import com.blackrook.small.struct.HashDequeMap;
+import com.blackrook.small.struct.PathVariableMap;
+import com.blackrook.small.struct.RequestURI;
+import com.blackrook.small.struct.URITrie;
 import com.blackrook.small.struct.Utils;
 import com.blackrook.small.util.SmallRequestUtils;
 import com.blackrook.small.util.SmallUtils;
@@ -65,6 +76,9 @@ import com.blackrook.small.util.SmallUtils;
  */
 public class DispatchEntryPoint<S extends DispatchComponent>
 {
+	/** Parameter values for methods without parameters. */
+	private static final Object[] NO_PARAMS = new Object[0];
+
 	/** Parameter source types. */
 	public static enum Source
 	{
@@ -100,7 +114,11 @@ public class DispatchEntryPoint<S extends DispatchComponent>
 		private ScopeType sourceScopeType;
 		private String name;
 		private boolean trim;
-		
+		/** Path variable slot, or -1 if not known. */
+		private int slot;
+		/** Compiled binder. */
+		private ParameterBinder binder;
+				
 		protected ParameterDescriptor(Source sourceType, ScopeType scope, Class<?> type, String name, boolean trim)
 		{
 			this.type = type;
@@ -108,6 +126,7 @@ public class DispatchEntryPoint<S extends DispatchComponent>
 			this.sourceScopeType = scope;
 			this.name = name;
 			this.trim = trim;
+			this.slot = -1;
 		}
 
 		public String getName()
@@ -134,6 +153,61 @@ public class DispatchEntryPoint<S extends DispatchComponent>
 		{
 			return trim;
 		}
+
+		public int getSlot()
+		{
+			return slot;
+		}
+	}
+
+	/**
+	 * A compiled parameter binder: gets the value for one parameter from the call.
+	 */
+	@FunctionalInterface
+	private interface ParameterBinder
+	{
+		Object bind(Call call) throws InvocationTargetException, ServletException, IOException;
+	}
+
+	/**
+	 * The state of a single call to {@link DispatchEntryPoint#invoke(SmallRequestContext)}
+	 * that the parameter binders read from: a view of the request context, 
+	 * plus what is particular to this entry point.
+	 */
+	private static class Call
+	{
+		private SmallRequestContext context;
+		private RequestMethod requestMethod; 
+		private HttpServletRequest request;
+		private HttpServletResponse response; 
+		private Map<String, String> pathVariableMap; 
+		private PathVariableMap pathVariableSlots; 
+		private Map<String, Cookie> cookieMap; 
+		private HashDequeMap<String, Part> partMap;
+		private Object content;
+
+		private Call(SmallRequestContext context, PathVariableMap pathVariableSlots)
+		{
+			this.context = context;
+			this.requestMethod = context.getRequestMethod();
+			this.request = context.getRequest();
+			this.response = context.getResponse();
+			this.pathVariableMap = context.getPathVariableMap();
+			this.pathVariableSlots = pathVariableSlots;
+			this.cookieMap = context.getCookieMap();
+			this.partMap = context.getPartMap();
+			this.content = null;
+		}
+
+		private RequestURI getRequestURI()
+		{
+			return context.getRequestURI();
+		}
+		
+		private SmallEnvironment getEnvironment()
+		{
+			return context.getEnvironment();
+		}
 	}
 
 	/** Method. */
@@ -142,8 +216,16 @@ public class DispatchEntryPoint<S extends DispatchComponent>
 	private Class<?> type;
 	/** Parameter entry. */
 	private ParameterDescriptor[] parameters;
+	/** Path variable names, in path order, if known. */
+	private String[] pathVariableNames;
 	/** Component instance. */
 	private S componentInstance;
+	/** Method invoker. */
+	private MethodInvoker invoker;
+	/** If true, a call may read the cookie map. */
+	private boolean usesCookies;
+	/** If true, constructed models and attributes are built at the same time. */
+	private boolean parallelConstruction;
 
 	/**
 	 * Creates an entry method around a service profile instance.
@@ -155,6 +237,10 @@ public class DispatchEntryPoint<S extends DispatchComponent>
 		this.componentInstance = componentInstance;
 		this.method = method;
 		this.type = method.getReturnType();
+		this.pathVariableNames = null;
+		this.invoker = MethodInvokers.create(method, componentInstance.getInstance());
+		this.usesCookies = false;
+		this.parallelConstruction = method.isAnnotationPresent(ParallelConstruction.class);
 
 		Annotation[][] pannotations = method.getParameterAnnotations();
 		Class<?>[] ptypes = method.getParameterTypes();
@@ -240,6 +326,11 @@ public class DispatchEntryPoint<S extends DispatchComponent>
 			}
 			
 			this.parameters[i] = new ParameterDescriptor(source, scope, paramType, name, trim);
+			this.parameters[i].binder = compileBinder(i, this.parameters[i]);
+			
+			// Models and attributes are built by methods that may read cookies.
+			if (source == Source.COOKIE || source == Source.MODEL || source == Source.ATTRIBUTE)
+				this.usesCookies = true;
 		}
 		
 	}
@@ -268,6 +359,55 @@ public class DispatchEntryPoint<S extends DispatchComponent>
 		return parameters;
 	}
 
+	/**
+	 * Sets the names of the path variables on the path to this entry point, in path order,
+	 * and finds the slot for each path variable parameter.
+	 * If the path variable map of the request context passed to {@link #invoke(SmallRequestContext)}
+	 * is a {@link PathVariableMap} with this same array of names, path variables are read by slot.
+	 * @param pathVariableNames the path variable names.
+	 * @see URITrie#getPathVariableNames(String)
+	 */
+	protected void setPathVariableNames(String[] pathVariableNames)
+	{
+		this.pathVariableNames = pathVariableNames;
+		for (int i = 0; i < parameters.length; i++)
+		{
+			ParameterDescriptor pinfo = parameters[i];
+			if (pinfo.getSourceType() != Source.PATH_VARIABLE)
+				continue;
+			pinfo.slot = -1;
+			for (int s = 0; s < pathVariableNames.length; s++)
+			{
+				if (pathVariableNames[s].equals(pinfo.getName()))
+				{
+					pinfo.slot = s;
+					break;
+				}
+			}
+			pinfo.binder = compileBinder(i, pinfo);
+		}
+	}
+	
+	/**
+	 * @return the names of the path variables on the path to this entry point, in path order, or null if not known.
+	 */
+	public String[] getPathVariableNames()
+	{
+		return pathVariableNames;
+	}
+
+	/**
+	 * Checks if a call to this entry point may read the cookie map passed to it
+	 * (it has {@link CookieParameter} parameters, or parameters built by {@link Model} or {@link Attribute} methods).
+	 * If not, the cookie map does not need to be built.
+	 * @return true if so, false if not.
+	 * @since 1.7.0
+	 */
+	public boolean usesCookies()
+	{
+		return usesCookies;
+	}
+
 	/**
 	 * Gets the service profile that this belongs to.
 	 * @return the service profile.
@@ -294,6 +434,7 @@ public class DispatchEntryPoint<S extends DispatchComponent>
 	 * @throws InvocationTargetException if the underlying call throws an exception.
 	 * @throws ServletException if any other servlet exception happens. 
 	 * @throws IOException if an IO Error occurs.
+	 * @see #invoke(SmallRequestContext)
 	 */
 	protected Object invoke(
 		RequestMethod requestMethod, 
@@ -304,247 +445,764 @@ public class DispatchEntryPoint<S extends DispatchComponent>
 		HashDequeMap<String, Part> partMap
 	) throws InvocationTargetException, ServletException, IOException 
 	{
-		Object[] invokeParams = new Object[parameters.length];
+		return invoke(SmallRequestContext.create(requestMethod, request, response, pathVariableMap, cookieMap, partMap));
+	}
+
+	/**
+	 * Calls this method for a request.
+	 * The parameters are bound from the request context, into an argument array from it.
+	 * @param context the request context.
+	 * @return the function's return value.
+	 * @throws UnsupportedMediaTypeException if an incoming or outgoing type is unsupported.
+	 * @throws NoConverterException if an object could not be converted to a serializable format for transmission.
+	 * @throws ClassCastException if a value could not be converted to another type.
+	 * @throws BeanCreationException if a bean cannot be instantiated for any reason on the application, session, or request scope.
+	 * @throws UnsupportedEncodingException if an encoding type is not supported by this server.
+	 * @throws InvocationTargetException if the underlying call throws an exception.
+	 * @throws ServletException if any other servlet exception happens. 
+	 * @throws IOException if an IO Error occurs.
+	 * @since 1.7.0
+	 */
+	protected Object invoke(SmallRequestContext context) throws InvocationTargetException, ServletException, IOException 
+	{
+		Object[] invokeParams = bindParameters(createCall(context));
+		try {
+			return invokeWith(invokeParams);
+		} finally {
+			if (invokeParams != NO_PARAMS)
+				context.releaseArguments(invokeParams);
+		}
+	}
+
+	/**
+	 * Creates the state of a single call, for the parameter binders.
+	 */
+	private Call createCall(SmallRequestContext context)
+	{
+		Map<String, String> pathVariableMap = context.getPathVariableMap();
+		PathVariableMap pathVariableSlots = null;
+		if (pathVariableNames != null && pathVariableMap instanceof PathVariableMap && ((PathVariableMap)pathVariableMap).hasNames(pathVariableNames))
+			pathVariableSlots = (PathVariableMap)pathVariableMap;
+		return new Call(context, pathVariableSlots);
+	}
+
+	/**
+	 * Gets the values of all of this method's parameters for a call.
+	 * @param call the current call.
+	 * @return the parameter values, in an argument array from the call's request context.
+	 */
+	private Object[] bindParameters(Call call) throws InvocationTargetException, ServletException, IOException
+	{
+		Object[] invokeParams = parameters.length > 0 ? call.context.getArguments(parameters.length) : NO_PARAMS;
+		boolean[] bound = parallelConstruction ? bindConstructedParameters(call, invokeParams) : null;
+		for (int i = 0; i < parameters.length; i++)
+			if (bound == null || !bound[i])
+				invokeParams[i] = parameters[i].binder.bind(call);
+		return invokeParams;
+	}
+
+	/**
+	 * Calls this method with already-bound parameter values.
+	 * @param invokeParams the parameter values.
+	 * @return the method's return value.
+	 * @throws InvocationTargetException if the method throws an exception.
+	 */
+	private Object invokeWith(Object[] invokeParams) throws InvocationTargetException
+	{
+		try {
+			return invoker.invoke(invokeParams);
+		} catch (Throwable t) {
+			throw new InvocationTargetException(t);
+		}
+	}
 	
-		String path = null;
-		String pathFile = null;
-		Object content = null;
+	/**
+	 * A model or attribute that is built for a call with {@link ParallelConstruction}.
+	 */
+	private static class ParallelBuild
+	{
+		/** The parameter's descriptor. */
+		private ParameterDescriptor descriptor;
+		/** The attribute's constructor, or null if this is a model. */
+		private AttributeConstructor attributeConstructor;
+		/** The constructor method. */
+		private DispatchEntryPoint<?> entryPoint;
+		/** The constructor method's parameters, bound on the calling thread. */
+		private Object[] params;
+		/** If true, this replaces an expired application attribute. */
+		private boolean refresh;
+		/** If true, this holds the claim on the first build of an application attribute. */
+		private boolean claimed;
+		/** The built value. */
+		private Object value;
+		/** If true, the value was built. */
+		private boolean built;
+
+		private ParallelBuild(ParameterDescriptor descriptor, AttributeConstructor attributeConstructor, DispatchEntryPoint<?> entryPoint, Object[] params, boolean refresh, boolean claimed)
+		{
+			this.descriptor = descriptor;
+			this.attributeConstructor = attributeConstructor;
+			this.entryPoint = entryPoint;
+			this.params = params;
+			this.refresh = refresh;
+			this.claimed = claimed;
+			this.value = null;
+			this.built = false;
+		}
 		
+		private void build() throws InvocationTargetException
+		{
+			value = entryPoint.invokeWith(params);
+			built = true;
+		}
+		
+		/**
+		 * Gives up this build's refresh or first build claim, for builds that are not stored.
+		 */
+		private void abandon()
+		{
+			if (refresh)
+				attributeConstructor.finishRefresh(false);
+			if (claimed)
+				attributeConstructor.unlockBuild();
+		}
+	}
+	
+	/**
+	 * Binds the parameters that are built by model or attribute constructor methods at the same time.
+	 * <p>Everything that reads the request is done on the calling thread: deciding what needs to be built, 
+	 * binding the constructor methods' own parameters, and storing the built values in their scopes. 
+	 * Only the constructor methods themselves are called on other threads - one on the calling thread 
+	 * and the rest on the environment's constructor executor - and this waits for all of them to finish.
+	 * <p>Session and application attributes are still built once: if a session attribute is missing,
+	 * the session mutex is held until it is stored, and an application attribute is only built here
+	 * if no other request is building it (else this waits for that request when the parameter is bound).
+	 * @param call the current call.
+	 * @param invokeParams the parameter values to fill in.
+	 * @return which parameters were bound, or null if fewer than two are built by constructors.
+	 */
+	private boolean[] bindConstructedParameters(final Call call, final Object[] invokeParams) throws InvocationTargetException, ServletException, IOException
+	{
 		for (int i = 0; i < parameters.length; i++)
 		{
 			ParameterDescriptor pinfo = parameters[i];
-			switch (pinfo.getSourceType())
+			if (pinfo.getSourceType() == Source.ATTRIBUTE
+				&& pinfo.getSourceScopeType() == ScopeType.SESSION
+				&& call.request.getSession().getAttribute(pinfo.getName()) == null
+				&& componentInstance.findAttributeConstructor(pinfo.getName()) != null
+			){
+				synchronized (SmallUtils.getSessionMutex(call.request.getSession()))
+				{
+					return buildConstructedParameters(call, invokeParams);
+				}
+			}
+		}
+		return buildConstructedParameters(call, invokeParams);
+	}
+
+	/**
+	 * Binds the parameters that are built by model or attribute constructor methods at the same time.
+	 * @param call the current call.
+	 * @param invokeParams the parameter values to fill in.
+	 * @return which parameters were bound, or null if fewer than two are built by constructors.
+	 * @see #bindConstructedParameters(Call, Object[])
+	 */
+	private boolean[] buildConstructedParameters(final Call call, final Object[] invokeParams) throws InvocationTargetException, ServletException, IOException
+	{
+		boolean[] out = new boolean[parameters.length];
+		int count = 0;
+		for (int i = 0; i < parameters.length; i++)
+		{
+			ParameterDescriptor pinfo = parameters[i];
+			if (pinfo.getSourceType() == Source.MODEL)
+				out[i] = componentInstance.getModelConstructor(pinfo.getName()) != null;
+			else if (pinfo.getSourceType() == Source.ATTRIBUTE)
+				out[i] = componentInstance.findAttributeConstructor(pinfo.getName()) != null;
+			if (out[i])
+				count++;
+		}
+		
+		if (count < 2)
+			return null;
+		
+		ParallelBuild[] builds = new ParallelBuild[parameters.length];
+		int first = -1;
+		try {
+			for (int i = 0; i < parameters.length; i++)
+				if (out[i] && (builds[i] = prepareBuild(call, parameters[i])) != null && first < 0)
+					first = i;
+		} catch (InvocationTargetException | ServletException | IOException | RuntimeException e) {
+			// Let other requests build what this one will not.
+			for (int i = 0; i < builds.length; i++)
+				if (builds[i] != null)
+					builds[i].abandon();
+			throw e;
+		}
+		
+		Throwable failure = null;
+		if (first >= 0)
+		{
+			Executor executor = call.getEnvironment().getConstructorExecutor();
+			CompletableFuture<?>[] futures = new CompletableFuture<?>[parameters.length];
+			try {
+				for (int i = first + 1; i < parameters.length; i++)
+				{
+					if (builds[i] == null)
+						continue;
+					final ParallelBuild build = builds[i];
+					futures[i] = CompletableFuture.runAsync(() -> 
+					{
+						try {
+							build.build();
+						} catch (InvocationTargetException e) {
+							throw new CompletionException(e);
+						}
+					}, executor);
+				}
+				builds[first].build();
+			} catch (InvocationTargetException | RuntimeException e) {
+				failure = e;
+			} finally {
+				for (int i = 0; i < futures.length; i++)
+				{
+					if (futures[i] == null)
+						continue;
+					try {
+						futures[i].join();
+					} catch (CompletionException e) {
+						if (failure == null)
+							failure = e.getCause() != null ? e.getCause() : e;
+					}
+				}
+				
+				// Stores what was built, and gives up the claims of what was not.
+				for (int i = 0; i < builds.length; i++)
+					if (builds[i] != null)
+						storeBuild(call, builds[i], invokeParams, i);
+			}
+		}
+		
+		if (failure instanceof InvocationTargetException)
+			throw (InvocationTargetException)failure;
+		else if (failure instanceof RuntimeException)
+			throw (RuntimeException)failure;
+		else if (failure != null)
+			throw new InvocationTargetException(failure);
+
+		// Models that were built are already bound. The rest are read from where they were stored.
+		for (int i = 0; i < parameters.length; i++)
+			if (out[i] && (builds[i] == null || builds[i].attributeConstructor != null))
+				invokeParams[i] = parameters[i].binder.bind(call);
+		return out;
+	}
+
+	/**
+	 * Decides if a model or attribute parameter needs to be built for a call, 
+	 * and if so, binds its constructor method's parameters.
+	 * @param call the current call.
+	 * @param pinfo the parameter descriptor.
+	 * @return the build, or null if the value does not need to be built.
+	 */
+	private ParallelBuild prepareBuild(Call call, ParameterDescriptor pinfo) throws InvocationTargetException, ServletException, IOException
+	{
+		String name = pinfo.getName();
+		AttributeConstructor attributeConstructor = null;
+		DispatchEntryPoint<?> entryPoint;
+		boolean refresh = false;
+		boolean claimed = false;
+		if (pinfo.getSourceType() == Source.MODEL)
+		{
+			if (getModelMap(call.request).containsKey(name + ":" + pinfo.getType().getName()))
+				return null;
+			entryPoint = componentInstance.getModelConstructor(name);
+		}
+		else
+		{
+			attributeConstructor = componentInstance.findAttributeConstructor(name);
+			entryPoint = attributeConstructor.getEntryPoint();
+			switch (pinfo.getSourceScopeType())
 			{
-				case PATH:
-					path = path != null ? path : request.getRequestURI();
-					invokeParams[i] = Utils.createForType("Parameter " + i, path, pinfo.getType());
-					break;
-				case PATH_FILE:
-					pathFile = pathFile != null ? pathFile : SmallRequestUtils.getFileName(request);
-					invokeParams[i] = Utils.createForType("Parameter " + i, pathFile, pinfo.getType());
-					break;
-				case PATH_QUERY:
-					invokeParams[i] = Utils.createForType("Parameter " + i, request.getQueryString(), pinfo.getType());
-					break;
-				case PATH_REMAINDER:
-					invokeParams[i] = Utils.createForType("Parameter " + i, request.getAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_PATH_REMAINDER), pinfo.getType());
-					break;
-				case PATH_VARIABLE:
-					invokeParams[i] = Utils.createForType("Parameter " + i, pathVariableMap.get(pinfo.name), pinfo.getType());
-					break;
-				case SMALLRESPONSE:
-					invokeParams[i] = SmallRequestUtils.getSmallResponse(request);
-					break;
-				case SERVLET_REQUEST:
-					invokeParams[i] = request;
-					break;
-				case SERVLET_RESPONSE:
-					invokeParams[i] = response;
-					break;
-				case SERVLET_CONTEXT:
-					invokeParams[i] = request.getServletContext();
+				case REQUEST:
+					if (call.request.getAttribute(name) != null)
+						return null;
 					break;
 				case SESSION:
-					invokeParams[i] = request.getSession();
-					break;
-				case METHOD_TYPE:
-					invokeParams[i] = requestMethod;
+					// The session mutex is held if this is missing.
+					if (call.request.getSession().getAttribute(name) != null)
+						return null;
 					break;
-				case HEADER:
+				case APPLICATION:
 				{
-					String headerName = pinfo.getName();
-					invokeParams[i] = Utils.createForType("Parameter " + i, request.getHeader(headerName), pinfo.getType());
-					break;
-				}
-				case HEADER_MAP:
-				{
-					if (Map.class.isAssignableFrom(pinfo.getType()))
+					ServletContext context = call.request.getServletContext();
+					if (context.getAttribute(name) != null)
 					{
-						Map<String, String> map = new java.util.HashMap<String, String>();
-						
-						Enumeration<String> strenum = request.getHeaderNames();
-						while (strenum.hasMoreElements())
-						{
-							String header = strenum.nextElement();
-							map.put(header, request.getHeader(header));
-						}
-						
-						invokeParams[i] = map;
+						if (!attributeConstructor.isExpired(System.currentTimeMillis()) || !attributeConstructor.startRefresh())
+							return null;
+						refresh = true;
+					}
+					// Another request is building it - wait for it when the parameter is bound.
+					else if (!attributeConstructor.tryLockBuild())
+					{
+						return null;
+					}
+					else if (context.getAttribute(name) != null)
+					{
+						attributeConstructor.unlockBuild();
+						return null;
 					}
 					else
 					{
-						throw new ClassCastException("Parameter " + i + " is not a type that can store a key-value structure.");
+						claimed = true;
 					}
 					break;
 				}
-				case COOKIE:
+			}
+		}
+
+		Object[] params;
+		try {
+			params = entryPoint.bindParameters(entryPoint.createCall(call.context));
+		} catch (InvocationTargetException | ServletException | IOException | RuntimeException e) {
+			if (refresh)
+				attributeConstructor.finishRefresh(false);
+			if (claimed)
+				attributeConstructor.unlockBuild();
+			throw e;
+		}
+		return new ParallelBuild(pinfo, attributeConstructor, entryPoint, params, refresh, claimed);
+	}
+
+	/**
+	 * Stores a model or attribute built for a call in its scope, and gives up the build's claims.
+	 * Application attributes that were stored by another request while this one was building are kept.
+	 * @param call the current call.
+	 * @param build the build.
+	 * @param invokeParams the parameter values to fill in (for models).
+	 * @param index the parameter index.
+	 */
+	private static void storeBuild(Call call, ParallelBuild build, Object[] invokeParams, int index)
+	{
+		String name = build.descriptor.getName();
+		if (build.attributeConstructor == null)
+		{
+			if (!build.built)
+				return;
+			if (build.value != null)
+				getModelMap(call.request).put(name + ":" + build.descriptor.getType().getName(), build.value);
+			call.request.setAttribute(name, build.value);
+			invokeParams[index] = build.value;
+			return;
+		}
+
+		switch (build.descriptor.getSourceScopeType())
+		{
+			case REQUEST:
+			{
+				if (build.built)
+					call.request.setAttribute(name, build.value);
+				break;
+			}
+			case SESSION:
+			{
+				// The session mutex is held (see bindConstructedParameters()).
+				if (build.built)
+					call.request.getSession().setAttribute(name, build.value);
+				break;
+			}
+			case APPLICATION:
+			{
+				ServletContext context = call.request.getServletContext();
+				if (build.refresh)
 				{
-					if (pinfo.getType() != Cookie.class)
-						throw new ClassCastException("Parameter " + i + " is not a Cookie type.");
-					String cookieName = pinfo.getName();
-					Cookie c = cookieMap.containsKey(cookieName) ? cookieMap.get(cookieName) : new Cookie(cookieName, "");
-					invokeParams[i] = c;
-					break;
+					if (build.built)
+						context.setAttribute(name, build.value);
+					build.attributeConstructor.finishRefresh(build.built);
 				}
-				case PARAMETER_MAP:
+				else if (build.claimed)
 				{
-					if (Map.class.isAssignableFrom(pinfo.getType()))
-					{
-						Map<String, Object> map = new HashMap<String, Object>();
-						if (partMap != null)
+					try {
+						if (build.built && context.getAttribute(name) == null)
 						{
-							for (Map.Entry<String, Deque<Part>> entry : partMap.entrySet())
-							{
-								String pname = entry.getKey();
-								Deque<Part> partlist = entry.getValue();
-								Part[] vout = (Part[])Array.newInstance(Part.class, partlist.size());
-								int x = 0;
-								for (Part p : partlist)
-									vout[x++] = componentInstance.getPartData(p, Part.class);
-								if (vout.length == 1)
-									map.put(pname, vout[0]);
-								else
-									map.put(pname, vout);
-							}
+							context.setAttribute(name, build.value);
+							build.attributeConstructor.finishRefresh(true);
 						}
-						else for (Map.Entry<String, String[]> paramEntry : request.getParameterMap().entrySet())
+					} finally {
+						build.attributeConstructor.unlockBuild();
+					}
+				}
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Gets the map of models already built on a request, creating it if it does not exist.
+	 * @param request the servlet request.
+	 * @return the map of models by name and type.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> getModelMap(HttpServletRequest request)
+	{
+		Map<String, Object> out = (Map<String, Object>)request.getAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_MODEL_MAP);
+		if (out == null)
+			request.setAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_MODEL_MAP, out = new ConcurrentHashMap<>(4));
+		return out;
+	}
+
+	/**
+	 * Builds a request-scoped attribute if it is not already on the request.
+	 * @param call the current call.
+	 * @param constructor the attribute's constructor.
+	 */
+	private void constructRequestAttribute(Call call, AttributeConstructor constructor) throws InvocationTargetException, ServletException, IOException
+	{
+		String name = constructor.getName();
+		if (call.request.getAttribute(name) == null)
+			call.request.setAttribute(name, constructor.getEntryPoint().invoke(call.context));
+	}
+
+	/**
+	 * Builds a session-scoped attribute if it is not already on the session.
+	 * Only one request per session builds it, by locking the session mutex (see {@link SmallUtils#getSessionMutex(HttpSession)}).
+	 * @param call the current call.
+	 * @param constructor the attribute's constructor.
+	 */
+	private void constructSessionAttribute(Call call, AttributeConstructor constructor) throws InvocationTargetException, ServletException, IOException
+	{
+		String name = constructor.getName();
+		HttpSession session = call.request.getSession();
+		if (session.getAttribute(name) != null)
+			return;
+		synchronized (SmallUtils.getSessionMutex(session))
+		{
+			if (session.getAttribute(name) == null)
+				session.setAttribute(name, constructor.getEntryPoint().invoke(call.context));
+		}
+	}
+
+	/**
+	 * Builds an application-scoped attribute if it is not already on the servlet context, 
+	 * or refreshes it if its refresh interval has passed.
+	 * Only one request builds or refreshes it at a time - while a value is refreshed, other requests use the current one.
+	 * @param call the current call.
+	 * @param constructor the attribute's constructor.
+	 */
+	private void constructApplicationAttribute(Call call, AttributeConstructor constructor) throws InvocationTargetException, ServletException, IOException
+	{
+		String name = constructor.getName();
+		ServletContext context = call.request.getServletContext();
+		if (context.getAttribute(name) != null)
+		{
+			if (!constructor.isExpired(System.currentTimeMillis()) || !constructor.startRefresh())
+				return;
+			boolean built = false;
+			try {
+				context.setAttribute(name, constructor.getEntryPoint().invoke(call.context));
+				built = true;
+			} finally {
+				constructor.finishRefresh(built);
+			}
+			return;
+		}
+		constructor.lockBuild();
+		try {
+			if (context.getAttribute(name) == null)
+			{
+				context.setAttribute(name, constructor.getEntryPoint().invoke(call.context));
+				constructor.finishRefresh(true);
+			}
+		} finally {
+			constructor.unlockBuild();
+		}
+	}
+
+	/**
+	 * Compiles the binder for a parameter.
+	 * @param index the parameter index.
+	 * @param pinfo the parameter descriptor.
+	 * @return the binder for the parameter, which trims String values if the parameter needs it.
+	 */
+	private ParameterBinder compileBinder(int index, ParameterDescriptor pinfo)
+	{
+		final ParameterBinder binder = compileSourceBinder(index, pinfo);
+		if (!pinfo.getTrim())
+			return binder;
+		
+		return (call) -> 
+		{
+			Object value = binder.bind(call);
+			// check for trim-able object.
+			if (value != null && value.getClass() == String.class)
+				return ((String)value).trim();
+			return value;
+		};
+	}
+	
+	/**
+	 * Compiles the binder for a parameter's source.
+	 * @param index the parameter index.
+	 * @param pinfo the parameter descriptor.
+	 * @return the binder for the parameter.
+	 */
+	private ParameterBinder compileSourceBinder(int index, ParameterDescriptor pinfo)
+	{
+		final String memberName = "Parameter " + index;
+		final Class<?> paramType = pinfo.getType();
+		final String name = pinfo.getName();
+		
+		switch (pinfo.getSourceType())
+		{
+			case PATH:
+			{
+				final Function<Object, ?> converter = Utils.createConverter(memberName, paramType);
+				return (call) -> converter.apply(call.getRequestURI().getURI());
+			}
+			case PATH_FILE:
+			{
+				final Function<Object, ?> converter = Utils.createConverter(memberName, paramType);
+				return (call) -> converter.apply(call.getRequestURI().getFileName());
+			}
+			case PATH_QUERY:
+			{
+				final Function<Object, ?> converter = Utils.createConverter(memberName, paramType);
+				return (call) -> converter.apply(call.getRequestURI().getQuery());
+			}
+			case PATH_REMAINDER:
+			{
+				final Function<Object, ?> converter = Utils.createConverter(memberName, paramType);
+				return (call) -> converter.apply(call.request.getAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_PATH_REMAINDER));
+			}
+			case PATH_VARIABLE:
+			{
+				final Function<Object, ?> converter = Utils.createConverter(memberName, paramType);
+				final int slot = pinfo.getSlot();
+				return (call) -> 
+				{
+					String value;
+					if (call.pathVariableSlots != null)
+						value = slot >= 0 && slot < call.pathVariableSlots.size() ? call.pathVariableSlots.getValue(slot) : null;
+					else
+						value = call.pathVariableMap.get(name);
+					return converter.apply(value);
+				};
+			}
+			case SMALLRESPONSE:
+				return (call) -> SmallRequestUtils.getSmallResponse(call.request);
+			case SERVLET_REQUEST:
+				return (call) -> call.request;
+			case SERVLET_RESPONSE:
+				return (call) -> call.response;
+			case SERVLET_CONTEXT:
+				return (call) -> call.request.getServletContext();
+			case SESSION:
+				return (call) -> call.request.getSession();
+			case METHOD_TYPE:
+				return (call) -> call.requestMethod;
+			case HEADER:
+			{
+				final Function<Object, ?> converter = Utils.createConverter(memberName, paramType);
+				return (call) -> converter.apply(call.request.getHeader(name));
+			}
+			case HEADER_MAP:
+			{
+				if (!Map.class.isAssignableFrom(paramType))
+					return failingBinder(memberName + " is not a type that can store a key-value structure.");
+				
+				return (call) ->
+				{
+					Map<String, String> map = new HashMap<String, String>();
+					Enumeration<String> strenum = call.request.getHeaderNames();
+					while (strenum.hasMoreElements())
+					{
+						String header = strenum.nextElement();
+						map.put(header, call.request.getHeader(header));
+					}
+					return map;
+				};
+			}
+			case COOKIE:
+			{
+				if (paramType != Cookie.class)
+					return failingBinder(memberName + " is not a Cookie type.");
+				
+				return (call) -> 
+				{
+					Cookie c = call.cookieMap.get(name);
+					return c != null ? c : new Cookie(name, "");
+				};
+			}
+			case PARAMETER_MAP:
+			{
+				if (!Map.class.isAssignableFrom(paramType))
+					return failingBinder(memberName + " is not a type that can store a key-value structure.");
+				
+				return (call) ->
+				{
+					Map<String, Object> map = new HashMap<String, Object>();
+					if (call.partMap != null)
+					{
+						for (Map.Entry<String, Deque<Part>> entry : call.partMap.entrySet())
 						{
-							String[] vals = paramEntry.getValue();
-							map.put(paramEntry.getKey(), vals.length == 1 ? vals[0] : Arrays.copyOf(vals, vals.length));
+							String pname = entry.getKey();
+							Deque<Part> partlist = entry.getValue();
+							Part[] vout = new Part[partlist.size()];
+							int x = 0;
+							for (Part p : partlist)
+								vout[x++] = componentInstance.getPartData(p, Part.class);
+							if (vout.length == 1)
+								map.put(pname, vout[0]);
+							else
+								map.put(pname, vout);
 						}
-						invokeParams[i] = map;
 					}
-					else
+					else for (Map.Entry<String, String[]> paramEntry : call.request.getParameterMap().entrySet())
 					{
-						throw new ClassCastException("Parameter " + i + " is not a type that can store a key-value structure.");
+						String[] vals = paramEntry.getValue();
+						map.put(paramEntry.getKey(), vals.length == 1 ? vals[0] : Arrays.copyOf(vals, vals.length));
 					}
-					break;
-				}
-				case PARAMETER:
+					return map;
+				};
+			}
+			case PARAMETER:
+			{
+				final Function<Object, ?> converter = Utils.createConverter(memberName, paramType);
+				if (Utils.isArray(paramType))
 				{
-					String parameterName = pinfo.getName();
-					Object value = null;
-					if (partMap != null && partMap.containsKey(parameterName))
+					final Class<?> actualType = Utils.getArrayType(paramType);
+					return (call) -> 
 					{
-						if (Utils.isArray(pinfo.getType()))
+						Queue<Part> partlist;
+						if (call.partMap != null && (partlist = call.partMap.get(name)) != null)
 						{
-							Class<?> actualType = Utils.getArrayType(pinfo.getType());
-							Queue<Part> partlist = partMap.get(parameterName);
 							Object[] vout = (Object[])Array.newInstance(actualType, partlist.size());
 							int x = 0;
 							for (Part p : partlist)
 								vout[x++] = componentInstance.getPartData(p, actualType);
-							value = vout;
-						}
-						else
-						{
-							value = componentInstance.getPartData(partMap.get(parameterName).getFirst(), pinfo.getType());
+							return converter.apply(vout);
 						}
-					}
-					else if (Utils.isArray(pinfo.getType()))
-						value = request.getParameterValues(parameterName);
-					else
-						value = request.getParameter(parameterName);
-						
-					invokeParams[i] = Utils.createForType("Parameter " + i, value, pinfo.getType());
-					break;
+						return converter.apply(call.request.getParameterValues(name));
+					};
 				}
-				case ATTRIBUTE:
+				else
 				{
-					DispatchEntryPoint<?> attribDescriptor = componentInstance.getAttributeConstructor(pinfo.getName());
-					if (attribDescriptor != null)
+					return (call) -> 
+					{
+						Deque<Part> partlist;
+						if (call.partMap != null && (partlist = call.partMap.get(name)) != null)
+							return converter.apply(componentInstance.getPartData(partlist.getFirst(), paramType));
+						return converter.apply(call.request.getParameter(name));
+					};
+				}
+			}
+			case ATTRIBUTE:
+			{
+				final ScopeType scope = pinfo.getSourceScopeType();
+				return (call) ->
+				{
+					AttributeConstructor constructor = componentInstance.findAttributeConstructor(name);
+					if (constructor != null)
 					{
-						Object attrib = attribDescriptor.invoke(requestMethod, request, response, pathVariableMap, cookieMap, partMap);
-						ScopeType scope = pinfo.getSourceScopeType();
 						switch (scope)
 						{
 							case REQUEST:
-								request.setAttribute(pinfo.getName(), attrib);
+								constructRequestAttribute(call, constructor);
 								break;
 							case SESSION:
-								request.getSession().setAttribute(pinfo.getName(), attrib);
+								constructSessionAttribute(call, constructor);
 								break;
 							case APPLICATION:
-								request.getServletContext().setAttribute(pinfo.getName(), attrib);
+								constructApplicationAttribute(call, constructor);
 								break;
 						}
 					}
 					
-					ScopeType scope = pinfo.getSourceScopeType();
 					switch (scope)
 					{
 						case REQUEST:
-							invokeParams[i] = SmallRequestUtils.getRequestBean(request, pinfo.getType(), pinfo.getName());
-							break;
+							return SmallRequestUtils.getRequestBean(call.request, paramType, name);
 						case SESSION:
-							invokeParams[i] = SmallRequestUtils.getSessionBean(request, pinfo.getType(), pinfo.getName());
-							break;
+							return SmallRequestUtils.getSessionBean(call.request, paramType, name);
 						case APPLICATION:
-							invokeParams[i] = SmallUtils.getApplicationBean(request.getServletContext(), pinfo.getType(), pinfo.getName());
-							break;
+							return SmallUtils.getApplicationBean(call.request.getServletContext(), paramType, name);
+						default:
+							return null;
 					}
-					break;
-				}
-				case MODEL:
+				};
+			}
+			case MODEL:
+			{
+				final String modelKey = name + ":" + paramType.getName();
+				return (call) ->
 				{
-					DispatchEntryPoint<?> modelDescriptor = componentInstance.getModelConstructor(pinfo.getName());
-					if (modelDescriptor != null)
+					Map<String, Object> modelMap = getModelMap(call.request);
+					Object model = modelMap.get(modelKey);
+					if (model == null)
 					{
-						Object model = modelDescriptor.invoke(requestMethod, request, response, pathVariableMap, cookieMap, partMap);
-						request.setAttribute(pinfo.getName(), invokeParams[i] = model);
-					}
-					else
-					{
-						request.setAttribute(pinfo.getName(), invokeParams[i] = SmallRequestUtils.setModelFields(request, pinfo.getType()));
+						DispatchEntryPoint<?> modelDescriptor = componentInstance.getModelConstructor(name);
+						if (modelDescriptor != null)
+							model = modelDescriptor.invoke(call.context);
+						else
+							model = SmallRequestUtils.setModelFields(call.request, paramType);
+						if (model != null)
+							modelMap.put(modelKey, model);
 					}
-					break;
-				}
-				case CONTENT:
+					call.request.setAttribute(name, model);
+					return model;
+				};
+			}
+			case CONTENT:
+			{
+				return (call) ->
 				{
-					if (requestMethod == RequestMethod.POST || requestMethod == RequestMethod.PUT)
-					{
-						if (SmallRequestUtils.isJSON(request)) 
-						{ 
-							try (Reader r = request.getReader()) 
-							{
-								JSONDriver json = SmallUtils.getEnvironment(request.getServletContext()).getJSONDriver();
-								if (json == null)
-									throw new UnsupportedMediaTypeException("JSON decoding not supported.");
-								invokeParams[i] = json.fromJSON(request.getReader(), type);
-							} 
-						} 
-						else if (SmallRequestUtils.isXML(request)) 
-						{ 
-							try (Reader r = request.getReader()) 
-							{
-								XMLDriver xml = SmallUtils.getEnvironment(request.getServletContext()).getXMLDriver();
-								if (xml == null)
-									throw new UnsupportedMediaTypeException("XML decoding not supported.");
-								invokeParams[i] = xml.fromXML(request.getReader(), type);
-							}
+					HttpServletRequest request = call.request;
+					if (call.requestMethod != RequestMethod.POST && call.requestMethod != RequestMethod.PUT)
+						return null;
+					
+					if (SmallRequestUtils.isJSON(request)) 
+					{ 
+						try (Reader r = request.getReader()) 
+						{
+							JSONDriver json = call.getEnvironment().getJSONDriver();
+							if (json == null)
+								throw new UnsupportedMediaTypeException("JSON decoding not supported.", false);
+							return json.fromJSON(request.getReader(), type);
 						} 
-						else 
-						{ 
-							content = content != null ? content : SmallRequestUtils.getContentData(request, pinfo.getType());
-							invokeParams[i] = content;
+					} 
+					else if (SmallRequestUtils.isXML(request)) 
+					{ 
+						try (Reader r = request.getReader()) 
+						{
+							XMLDriver xml = call.getEnvironment().getXMLDriver();
+							if (xml == null)
+								throw new UnsupportedMediaTypeException("XML decoding not supported.", false);
+							return xml.fromXML(request.getReader(), type);
 						}
+					} 
+					else 
+					{ 
+						return call.content != null ? call.content : (call.content = SmallRequestUtils.getContentData(request, paramType));
 					}
-					else
-					{
-						invokeParams[i] = null;
-					}
-					break;
-				}
+				};
 			}
-			
-			// check for trim-able object.
-			if (pinfo.getTrim() && invokeParams[i] != null && invokeParams[i].getClass() == String.class)
-				invokeParams[i] = ((String)invokeParams[i]).trim(); 
+			default:
+				return (call) -> null;
 		}
-		
-		return Utils.invoke(method, componentInstance.getInstance(), invokeParams);
 	}
-	
+
+	/**
+	 * Creates a binder that always throws a {@link ClassCastException}, 
+	 * for parameters whose types cannot take the value from their source.
+	 * @param message the exception message.
+	 * @return the binder.
+	 */
+	private static ParameterBinder failingBinder(final String message)
+	{
+		return (call) -> 
+		{
+			throw new ClassCastException(message);
+		};
+	}
+
 	@Override
 	public String toString() 
 	{
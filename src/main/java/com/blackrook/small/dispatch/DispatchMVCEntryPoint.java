@@ -17,6 +17,7 @@ import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.blackrook.small.SmallRequestContext;
 import com.blackrook.small.enums.RequestMethod;
 import com.blackrook.small.exception.request.BeanCreationException;
 import com.blackrook.small.exception.request.NoConverterException;
@@ -59,4 +60,33 @@ public interface DispatchMVCEntryPoint<R>
 		Map<String, Cookie> cookieMap, 
 		HashDequeMap<String, Part> partMap
 	) throws InvocationTargetException, ServletException, IOException;
+
+	/**
+	 * Handles an MVC call, with everything it needs read from a request context.
+	 * <p>By default, this calls {@link #handleCall(RequestMethod, HttpServletRequest, HttpServletResponse, Map, Map, HashDequeMap)}
+	 * with the context's current values.
+	 * @param context the request context.
+	 * @return the return value.
+	 * @throws NotFoundException if a file that was going to be sent does not exist.
+	 * @throws UnsupportedMediaTypeException if an incoming or outgoing type is unsupported.
+	 * @throws NoConverterException if an object could not be converted to a serializable format for transmission.
+	 * @throws ClassCastException if a value could not be converted to another type.
+	 * @throws BeanCreationException if a bean cannot be instantiated for any reason on the application, session, or request scope.
+	 * @throws UnsupportedEncodingException if an encoding type is not supported by this server.
+	 * @throws InvocationTargetException if the underlying call throws an exception.
+	 * @throws ServletException if any other servlet exception happens. 
+	 * @throws IOException if an IO Error occurs.
+	 * @since 1.7.0
+	 */
+	default R handleCall(SmallRequestContext context) throws InvocationTargetException, ServletException, IOException
+	{
+		return handleCall(
+			context.getRequestMethod(), 
+			context.getRequest(), 
+			context.getResponse(), 
+			context.getPathVariableMap(), 
+			context.getCookieMap(), 
+			context.getPartMap()
+		);
+	}
 }
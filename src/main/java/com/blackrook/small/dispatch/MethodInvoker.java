@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.dispatch;
+
+/**
+ * Calls a single method on a single object instance (if not static) with an array of arguments.
+ * Exceptions thrown by the method are thrown as-is.
+ * @author Matthew Tropiano
+ * @see MethodInvokers
+ */
+@FunctionalInterface
+interface MethodInvoker
+{
+	/**
+	 * Invokes the method.
+	 * @param args the method arguments, in order (must be exactly as many as the method's parameters).
+	 * @return the method's return value, or null if it returns void.
+	 * @throws Throwable anything that the method throws.
+	 */
+	Object invoke(Object[] args) throws Throwable;
+	
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.dispatch;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Factory for {@link MethodInvoker}s.
+ * <p>Public methods with up to {@value #MAX_GENERATED_PARAMETERS} parameters, whose declaring class, 
+ * parameter types, and return type are public and visible to this class, are called through a class generated by
+ * {@link LambdaMetafactory}, so that each call is a plain interface call that the JIT can inline.
+ * All other methods, or methods that cannot have a generated class for any reason, are called through reflection.
+ * @author Matthew Tropiano
+ */
+final class MethodInvokers
+{
+	/** Most parameters that a method can have for a generated invoker. */
+	static final int MAX_GENERATED_PARAMETERS = 8;
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	
+	/** Function types for non-void methods, by parameter count. */
+	private static final Class<?>[] CALL_TYPES = {
+		Call0.class, Call1.class, Call2.class, Call3.class, Call4.class, Call5.class, Call6.class, Call7.class, Call8.class
+	};
+
+	/** Function types for void methods, by parameter count. */
+	private static final Class<?>[] RUN_TYPES = {
+		Run0.class, Run1.class, Run2.class, Run3.class, Run4.class, Run5.class, Run6.class, Run7.class, Run8.class
+	};
+
+	// Generated function types for non-void methods.
+	interface Call0 { Object call(); }
+	interface Call1 { Object call(Object a0); }
+	interface Call2 { Object call(Object a0, Object a1); }
+	interface Call3 { Object call(Object a0, Object a1, Object a2); }
+	interface Call4 { Object call(Object a0, Object a1, Object a2, Object a3); }
+	interface Call5 { Object call(Object a0, Object a1, Object a2, Object a3, Object a4); }
+	interface Call6 { Object call(Object a0, Object a1, Object a2, Object a3, Object a4, Object a5); }
+	interface Call7 { Object call(Object a0, Object a1, Object a2, Object a3, Object a4, Object a5, Object a6); }
+	interface Call8 { Object call(Object a0, Object a1, Object a2, Object a3, Object a4, Object a5, Object a6, Object a7); }
+
+	// Generated function types for void methods.
+	interface Run0 { void call(); }
+	interface Run1 { void call(Object a0); }
+	interface Run2 { void call(Object a0, Object a1); }
+	interface Run3 { void call(Object a0, Object a1, Object a2); }
+	interface Run4 { void call(Object a0, Object a1, Object a2, Object a3); }
+	interface Run5 { void call(Object a0, Object a1, Object a2, Object a3, Object a4); }
+	interface Run6 { void call(Object a0, Object a1, Object a2, Object a3, Object a4, Object a5); }
+	interface Run7 { void call(Object a0, Object a1, Object a2, Object a3, Object a4, Object a5, Object a6); }
+	interface Run8 { void call(Object a0, Object a1, Object a2, Object a3, Object a4, Object a5, Object a6, Object a7); }
+
+	private MethodInvokers() {}
+
+	/**
+	 * Creates an invoker for a method, generated if possible, reflective if not.
+	 * @param method the method to invoke.
+	 * @param instance the object instance to invoke it on (ignored if static).
+	 * @return a new invoker.
+	 */
+	static MethodInvoker create(Method method, Object instance)
+	{
+		MethodInvoker out;
+		if ((out = generate(method, instance)) != null)
+			return out;
+		return reflect(method, instance);
+	}
+
+	/**
+	 * Creates an invoker for a method that uses reflection.
+	 * @param method the method to invoke.
+	 * @param instance the object instance to invoke it on (ignored if static).
+	 * @return a new invoker.
+	 */
+	static MethodInvoker reflect(Method method, Object instance)
+	{
+		return (args) -> {
+			try {
+				return method.invoke(instance, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		};
+	}
+
+	/**
+	 * Creates an invoker for a method through a generated class.
+	 * @param method the method to invoke.
+	 * @param instance the object instance to invoke it on (ignored if static).
+	 * @return a new invoker, or null if one could not be generated for this method.
+	 */
+	static MethodInvoker generate(Method method, Object instance)
+	{
+		if (!isGeneratable(method))
+			return null;
+		
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		boolean isVoid = method.getReturnType() == Void.TYPE;
+		boolean isStatic = (method.getModifiers() & Modifier.STATIC) != 0;
+		Class<?> functionType = (isVoid ? RUN_TYPES : CALL_TYPES)[parameterTypes.length];
+
+		Class<?>[] boxedTypes = new Class<?>[parameterTypes.length];
+		for (int i = 0; i < parameterTypes.length; i++)
+			boxedTypes[i] = box(parameterTypes[i]);
+		
+		Object function;
+		try {
+			MethodHandle handle = LOOKUP.unreflect(method);
+			MethodType erasedType = MethodType.genericMethodType(parameterTypes.length);
+			CallSite site = LambdaMetafactory.metafactory(LOOKUP, "call", 
+				isStatic ? MethodType.methodType(functionType) : MethodType.methodType(functionType, method.getDeclaringClass()), 
+				isVoid ? erasedType.changeReturnType(Void.TYPE) : erasedType, 
+				handle, 
+				MethodType.methodType(isVoid ? Void.TYPE : box(method.getReturnType()), boxedTypes)
+			);
+			function = isStatic ? site.getTarget().invoke() : site.getTarget().invoke(instance);
+		} catch (Throwable t) {
+			return null;
+		}
+		
+		switch (parameterTypes.length)
+		{
+			case 0:
+			{
+				if (isVoid) { Run0 f = (Run0)function; return (args) -> { f.call(); return null; }; }
+				else { Call0 f = (Call0)function; return (args) -> f.call(); }
+			}
+			case 1:
+			{
+				if (isVoid) { Run1 f = (Run1)function; return (args) -> { f.call(args[0]); return null; }; }
+				else { Call1 f = (Call1)function; return (args) -> f.call(args[0]); }
+			}
+			case 2:
+			{
+				if (isVoid) { Run2 f = (Run2)function; return (args) -> { f.call(args[0], args[1]); return null; }; }
+				else { Call2 f = (Call2)function; return (args) -> f.call(args[0], args[1]); }
+			}
+			case 3:
+			{
+				if (isVoid) { Run3 f = (Run3)function; return (args) -> { f.call(args[0], args[1], args[2]); return null; }; }
+				else { Call3 f = (Call3)function; return (args) -> f.call(args[0], args[1], args[2]); }
+			}
+			case 4:
+			{
+				if (isVoid) { Run4 f = (Run4)function; return (args) -> { f.call(args[0], args[1], args[2], args[3]); return null; }; }
+				else { Call4 f = (Call4)function; return (args) -> f.call(args[0], args[1], args[2], args[3]); }
+			}
+			case 5:
+			{
+				if (isVoid) { Run5 f = (Run5)function; return (args) -> { f.call(args[0], args[1], args[2], args[3], args[4]); return null; }; }
+				else { Call5 f = (Call5)function; return (args) -> f.call(args[0], args[1], args[2], args[3], args[4]); }
+			}
+			case 6:
+			{
+				if (isVoid) { Run6 f = (Run6)function; return (args) -> { f.call(args[0], args[1], args[2], args[3], args[4], args[5]); return null; }; }
+				else { Call6 f = (Call6)function; return (args) -> f.call(args[0], args[1], args[2], args[3], args[4], args[5]); }
+			}
+			case 7:
+			{
+				if (isVoid) { Run7 f = (Run7)function; return (args) -> { f.call(args[0], args[1], args[2], args[3], args[4], args[5], args[6]); return null; }; }
+				else { Call7 f = (Call7)function; return (args) -> f.call(args[0], args[1], args[2], args[3], args[4], args[5], args[6]); }
+			}
+			case 8:
+			{
+				if (isVoid) { Run8 f = (Run8)function; return (args) -> { f.call(args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7]); return null; }; }
+				else { Call8 f = (Call8)function; return (args) -> f.call(args[0], args[1], args[2], args[3], args[4], args[5], args[6], args[7]); }
+			}
+			default:
+				return null;
+		}
+	}
+
+	// Checks if a method can be called from a class generated for this one.
+	private static boolean isGeneratable(Method method)
+	{
+		if ((method.getModifiers() & Modifier.PUBLIC) == 0)
+			return false;
+		if (method.getParameterCount() > MAX_GENERATED_PARAMETERS)
+			return false;
+		if (!isAccessible(method.getDeclaringClass()) || !isAccessible(method.getReturnType()))
+			return false;
+		for (Class<?> type : method.getParameterTypes())
+			if (!isAccessible(type))
+				return false;
+		return true;
+	}
+
+	// Checks if a type is public and the same type by name from this class's class loader.
+	private static boolean isAccessible(Class<?> type)
+	{
+		while (type.isArray())
+			type = type.getComponentType();
+		if (type.isPrimitive())
+			return true;
+		if ((type.getModifiers() & Modifier.PUBLIC) == 0)
+			return false;
+		try {
+			return Class.forName(type.getName(), false, MethodInvokers.class.getClassLoader()) == type;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	// Gets the boxed type for a primitive type.
+	private static Class<?> box(Class<?> type)
+	{
+		return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+	}
+	
+}
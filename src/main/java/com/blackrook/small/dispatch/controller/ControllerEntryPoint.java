@@ -7,11 +7,16 @@
  ******************************************************************************/
 package com.blackrook.small.dispatch.controller;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.Cookie;
@@ -19,6 +24,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.blackrook.small.SmallModelView;
+import com.blackrook.small.SmallRequestContext;
 import com.blackrook.small.SmallResponse;
 import com.blackrook.small.SmallResponse.GenericSmallResponse;
 import com.blackrook.small.annotation.controller.Attachment;
@@ -36,6 +42,7 @@ import com.blackrook.small.exception.SmallFrameworkException;
 import com.blackrook.small.exception.SmallFrameworkSetupException;
 import com.blackrook.small.multipart.Part;
 import com.blackrook.small.struct.HashDequeMap;
+import com.blackrook.small.struct.URITrie;
 import com.blackrook.small.struct.Utils;
 import com.blackrook.small.util.SmallRequestUtils;
 import com.blackrook.small.util.SmallUtils;
@@ -47,6 +54,12 @@ import com.blackrook.small.util.SmallUtils;
 public class ControllerEntryPoint extends DispatchEntryPoint<ControllerComponent> implements DispatchMVCEntryPoint<SmallResponse>
 {
 	private static final Class<?>[] NO_FILTERS = new Class<?>[0];
+	/** Headers set on {@link NoCache} responses, as name and value pairs. */
+	private static final String[] NO_CACHE_HEADERS = {
+		"Cache-Control", "no-cache",
+		"Pragma", "no-cache",
+		"Expires", "Thu, 01 Jan 1970 00:00:00 GMT",
+	};
 	private static final RequestMethod[] REQUEST_METHODS_GET = new RequestMethod[]{RequestMethod.GET};
 
 	/** Full entry path. */
@@ -61,6 +74,8 @@ public class ControllerEntryPoint extends DispatchEntryPoint<ControllerComponent
 	private Class<?>[] filterChain;
 	/** Entry request methods. */
 	private RequestMethod[] requestMethods;
+	/** Does the entry method return a CompletionStage? */
+	private boolean async;
 
 	/**
 	 * Creates an entry method around a service profile instance.
@@ -74,6 +89,7 @@ public class ControllerEntryPoint extends DispatchEntryPoint<ControllerComponent
 		this.outputType = Output.AUTO;
 		this.noCache = method.isAnnotationPresent(NoCache.class);
 		this.filterChain = NO_FILTERS;
+		this.async = CompletionStage.class.isAssignableFrom(getType());
 
 		EntryPath controllerEntry = method.getAnnotation(EntryPath.class);
 		
@@ -96,6 +112,7 @@ public class ControllerEntryPoint extends DispatchEntryPoint<ControllerComponent
 			requestMethodsFound.toArray(this.requestMethods = new RequestMethod[requestMethodsFound.size()]);
 		
 		this.path = SmallUtils.pathify(controllerEntry.value());
+		setPathVariableNames(URITrie.getPathVariableNames(controllerProfile.getPath() + path));
 
 		if (method.isAnnotationPresent(FilterChain.class))
 		{
@@ -138,8 +155,8 @@ public class ControllerEntryPoint extends DispatchEntryPoint<ControllerComponent
 			}
 			else if (type != Void.class && type != Void.TYPE)
 			{
-				if (!SmallResponse.class.isAssignableFrom(type))
-					throw new SmallFrameworkSetupException("Entry methods that don't return void must return SmallResponse or it must be annotated with @Content, @Attachment, or @View.");
+				if (!SmallResponse.class.isAssignableFrom(type) && !async)
+					throw new SmallFrameworkSetupException("Entry methods that don't return void must return SmallResponse (or a CompletionStage of one) or it must be annotated with @Content, @Attachment, or @View.");
 				this.outputType = Output.AUTO;
 			}
 		}
@@ -186,6 +203,18 @@ public class ControllerEntryPoint extends DispatchEntryPoint<ControllerComponent
 		return noCache;
 	}
 
+	/**
+	 * Checks if this entry method returns a {@link CompletionStage}.
+	 * The result of the stage is handled as if the method returned it, according to its annotations. 
+	 * @return true if so, false if not.
+	 * @see #handleAsyncCall(SmallRequestContext)
+	 * @since 1.7.0
+	 */
+	public boolean isAsync()
+	{
+		return async;
+	}
+
 	/**
 	 * @return this method's full filter chain (package to controller to this method).
 	 */
@@ -204,8 +233,107 @@ public class ControllerEntryPoint extends DispatchEntryPoint<ControllerComponent
 		HashDequeMap<String, Part> partMap
 	) throws InvocationTargetException, ServletException, IOException
 	{
-		Object retval = invoke(requestMethod, request, response, pathVariableMap, cookieMap, partMap);
-		
+		return handleCall(SmallRequestContext.create(requestMethod, request, response, pathVariableMap, cookieMap, partMap));
+	}
+	
+	@Override
+	public SmallResponse handleCall(SmallRequestContext context) throws InvocationTargetException, ServletException, IOException
+	{
+		Object retval = invoke(context);
+		if (async && retval != null)
+		{
+			// Wait for it.
+			try {
+				retval = ((CompletionStage<?>)retval).toCompletableFuture().get();
+			} catch (ExecutionException e) {
+				throw new InvocationTargetException(e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InvocationTargetException(e);
+			}
+		}
+		return createResponse(context.getRequest(), retval);
+	}
+	
+	/**
+	 * Handles an MVC call on an entry method that returns a {@link CompletionStage}, without waiting for the stage to complete.
+	 * @param requestMethod the incoming request method.
+	 * @param request the HTTP request.
+	 * @param response the HTTP response.
+	 * @param pathVariableMap the path variable map.
+	 * @param cookieMap the cookie map.
+	 * @param partMap the map of name to multipart parts.
+	 * @return a stage that completes with the response, or with the exception that the entry method's stage completed with.
+	 * @throws InvocationTargetException if the underlying call throws an exception.
+	 * @throws ServletException if any other servlet exception happens. 
+	 * @throws IOException if an IO Error occurs.
+	 * @see #isAsync()
+	 * @since 1.7.0
+	 */
+	public CompletionStage<SmallResponse> handleAsyncCall(
+		RequestMethod requestMethod, 
+		HttpServletRequest request, 
+		HttpServletResponse response, 
+		Map<String, String> pathVariableMap, 
+		Map<String, Cookie> cookieMap, 
+		HashDequeMap<String, Part> partMap
+	) throws InvocationTargetException, ServletException, IOException
+	{
+		return handleAsyncCall(SmallRequestContext.create(requestMethod, request, response, pathVariableMap, cookieMap, partMap));
+	}
+	
+	/**
+	 * Handles an MVC call on an entry method that returns a {@link CompletionStage}, without waiting for the stage to complete,
+	 * with everything it needs read from a request context.
+	 * @param context the request context.
+	 * @return a stage that completes with the response, or with the exception that the entry method's stage completed with.
+	 * @throws InvocationTargetException if the underlying call throws an exception.
+	 * @throws ServletException if any other servlet exception happens. 
+	 * @throws IOException if an IO Error occurs.
+	 * @see #isAsync()
+	 * @since 1.7.0
+	 */
+	public CompletionStage<SmallResponse> handleAsyncCall(SmallRequestContext context) throws InvocationTargetException, ServletException, IOException
+	{
+		HttpServletRequest request = context.getRequest();
+		Object retval = invoke(context);
+		if (!async || retval == null)
+			return CompletableFuture.completedFuture(createResponse(request, retval));
+		return ((CompletionStage<?>)retval).thenApply((result) -> createResponse(request, result));
+	}
+	
+	/**
+	 * Checks if the forced MIME type applies to response content: only File, String, and binary content.
+	 * @param content the response content.
+	 * @return true if so, false if not.
+	 */
+	private static boolean isForcedTypeContent(Object content)
+	{
+		return content instanceof File
+			|| content instanceof CharSequence
+			|| content instanceof byte[]
+			|| content instanceof InputStream
+		;
+	}
+
+	/**
+	 * Checks if the forced MIME type needs to be set on a response.
+	 * @param smallResponse the response.
+	 * @return true if so, false if not.
+	 */
+	private boolean needsContentType(GenericSmallResponse smallResponse)
+	{
+		return mimeType != null && isForcedTypeContent(smallResponse.getContent()) && !smallResponse.hasHeader("Content-Type");
+	}
+
+	/**
+	 * Creates the response for a value returned by this entry method.
+	 * @param request the HTTP request.
+	 * @param retval the returned value.
+	 * @return the response.
+	 */
+	private SmallResponse createResponse(HttpServletRequest request, Object retval)
+	{
 		GenericSmallResponse smallResponse = null;
 		if (outputType != null)
 		{
@@ -232,7 +360,15 @@ public class ControllerEntryPoint extends DispatchEntryPoint<ControllerComponent
 				case AUTO:
 				case CONTENT:
 				{
-					if (retval instanceof SmallResponse)
+					// Responses built by SmallResponse.create() are used as-is, unless headers need to be added - 
+					// they may be shared, so they are never changed.
+					if (retval instanceof GenericSmallResponse)
+					{
+						smallResponse = (GenericSmallResponse)retval;
+						if (fname != null || noCache || needsContentType(smallResponse))
+							smallResponse = SmallResponse.create((SmallResponse)smallResponse);
+					}
+					else if (retval instanceof SmallResponse)
 						smallResponse = SmallResponse.create((SmallResponse)retval);
 					else
 						smallResponse = SmallResponse.create(retval);
@@ -248,11 +384,13 @@ public class ControllerEntryPoint extends DispatchEntryPoint<ControllerComponent
 			}
 		}
 		
+		if (needsContentType(smallResponse))
+			smallResponse.header("Content-Type", mimeType);
+
 		if (noCache)
 		{
-			smallResponse.header("Cache-Control", "no-cache");
-			smallResponse.header("Pragma", "no-cache");
-			smallResponse.dateHeader("Expires", 0);
+			for (int i = 0; i < NO_CACHE_HEADERS.length; i += 2)
+				smallResponse.header(NO_CACHE_HEADERS[i], NO_CACHE_HEADERS[i + 1]);
 		}
 		
 		return smallResponse;
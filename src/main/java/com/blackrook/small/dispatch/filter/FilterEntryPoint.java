@@ -18,6 +18,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.blackrook.small.SmallFilterResult;
+import com.blackrook.small.SmallRequestContext;
 import com.blackrook.small.dispatch.DispatchEntryPoint;
 import com.blackrook.small.dispatch.DispatchMVCEntryPoint;
 import com.blackrook.small.enums.RequestMethod;
@@ -55,4 +56,10 @@ public class FilterEntryPoint extends DispatchEntryPoint<FilterComponent> implem
 		return (SmallFilterResult)invoke(requestMethod, request, response, pathVariableMap, cookieMap, partMap);
 	}
 
+	@Override
+	public SmallFilterResult handleCall(SmallRequestContext context) throws InvocationTargetException, ServletException, IOException 
+	{
+		return (SmallFilterResult)invoke(context);
+	}
+
 }
@@ -17,6 +17,7 @@ import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.blackrook.small.SmallRequestContext;
 import com.blackrook.small.dispatch.DispatchEntryPoint;
 import com.blackrook.small.dispatch.DispatchMVCEntryPoint;
 import com.blackrook.small.enums.RequestMethod;
@@ -54,4 +55,11 @@ public class FilterExitPoint extends DispatchEntryPoint<FilterComponent> impleme
 		return (Void)null;
 	}
 
+	@Override
+	public Void handleCall(SmallRequestContext context) throws InvocationTargetException, ServletException, IOException 
+	{
+		invoke(context);
+		return (Void)null;
+	}
+
 }
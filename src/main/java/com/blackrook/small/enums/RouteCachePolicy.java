@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.enums;
+
+/**
+ * Policy for which resolved routes are kept in the route cache.
+ * Paths are cached as-is: there is no policy that caches one result per route template 
+ * for paths with path variables, since the variable values differ per path.
+ * Paths that resolve to nothing are kept apart from found routes, in a smaller cache.
+ * @author Matthew Tropiano
+ */
+public enum RouteCachePolicy
+{
+	/** 
+	 * Only paths that resolve to routes with no path variables or wildcards, and paths that resolve to nothing 
+	 * without going through a path variable or wildcard segment. 
+	 * Paths that carry IDs or file names (or misses under them, like <code>/users/1234/bogus</code>) are never cached. 
+	 */
+	STATIC,
+	/** All resolved paths. Best for applications with few distinct paths. */
+	ALL;
+}
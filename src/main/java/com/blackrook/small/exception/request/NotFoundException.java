@@ -24,6 +24,22 @@ public class NotFoundException extends ServletException
 	public NotFoundException(String message)
 	{
 		super(message);
+		super.fillInStackTrace();
+	}
+
+	/**
+	 * Creates a new exception, optionally without a stack trace.
+	 * Exceptions without stack traces are far cheaper to create, 
+	 * for when a request error is expected and the trace is not useful.
+	 * @param message the exception message.
+	 * @param writableStackTrace if false, the stack trace is not filled in.
+	 * @since 1.7.0
+	 */
+	public NotFoundException(String message, boolean writableStackTrace)
+	{
+		super(message);
+		if (writableStackTrace)
+			super.fillInStackTrace();
 	}
 
 	/**
@@ -34,6 +50,16 @@ public class NotFoundException extends ServletException
 	public NotFoundException(String message, Throwable exception)
 	{
 		super(message, exception);
+		super.fillInStackTrace();
+	}
+
+	/**
+	 * Does nothing - the constructors fill in the stack trace, unless they are asked not to.
+	 */
+	@Override
+	public synchronized Throwable fillInStackTrace()
+	{
+		return this;
 	}
 
 }
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.roles;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.blackrook.small.annotation.controller.Content;
+import com.blackrook.small.annotation.controller.EntryPath;
+import com.blackrook.small.exception.request.NoConverterException;
+import com.blackrook.small.exception.request.NotFoundException;
+
+/**
+ * Describes a writer of response content for Small.
+ * <p>
+ * When an {@link EntryPath} method returns an object as {@link Content}, the writer for the object's class
+ * (or the nearest superclass or interface) writes it to the response.
+ * Writers on components are used before the built-in writers, which handle Files, Paths, byte arrays, ByteBuffers, 
+ * CharSequences, Readers, InputStreams, ReadableByteChannels, Iterables, and Streams.
+ * <p>
+ * There can be many components with this role, but only one per written class.
+ * @author Matthew Tropiano
+ * @param <T> the content type.
+ * @since 1.7.0
+ */
+public interface ResponseWriter<T>
+{
+	/**
+	 * Gets the content class that this writes.
+	 * This is necessary as method parameter type erasure occurs when classes are compiled without
+	 * debugging information, and thus is lost when packaging applications in most cases.
+	 * <p>This method is called during environment construction.
+	 * @return the written class.
+	 */
+	Class<T> getWrittenClass();
+
+	/**
+	 * Called when content needs to be written to the response.
+	 * Status and headers from the controller's response are already set on the response.
+	 * Returning <code>false</code> passes the content along to the {@link XMLDriver} or {@link JSONDriver} for conversion.
+	 * @param request the HTTP request object.
+	 * @param response the HTTP response object.
+	 * @param mimeType the content type set for the response, or null if not set.
+	 * @param content the content to write.
+	 * @return true if the content was written by this writer, false if not.
+	 * @throws NotFoundException if the content refers to something that could not be found.
+	 * @throws NoConverterException if the content could not be written in the requested format.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	boolean writeContent(HttpServletRequest request, HttpServletResponse response, String mimeType, T content) throws NotFoundException, NoConverterException, IOException;
+}
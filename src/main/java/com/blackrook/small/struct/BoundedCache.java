@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.struct;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A concurrent map with a maximum size, which evicts its oldest entries first once full.
+ * Lookups do not lock. The size may briefly go over the maximum while threads are adding entries.
+ * @author Matthew Tropiano
+ * @param <K> the key type.
+ * @param <V> the value type stored.
+ */
+public class BoundedCache<K, V>
+{
+	/** Maximum amount of entries. */
+	private int capacity;
+	/** The entries. */
+	private ConcurrentHashMap<K, V> map;
+	/** Keys in the order that they were added. */
+	private ConcurrentLinkedQueue<K> order;
+
+	/**
+	 * Creates a new cache.
+	 * @param capacity the maximum amount of entries.
+	 * @throws IllegalArgumentException if capacity is less than 1.
+	 */
+	public BoundedCache(int capacity)
+	{
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be 1 or greater.");
+		this.capacity = capacity;
+		this.map = new ConcurrentHashMap<>(Math.min(capacity, 1024));
+		this.order = new ConcurrentLinkedQueue<>();
+	}
+
+	/**
+	 * Gets a value by key.
+	 * @param key the key.
+	 * @return the corresponding value, or null if not cached.
+	 */
+	public V get(K key)
+	{
+		return map.get(key);
+	}
+
+	/**
+	 * Adds a value, if there isn't a value for the key already.
+	 * If the cache is full, the oldest entries are removed.
+	 * @param key the key.
+	 * @param value the value.
+	 */
+	public void put(K key, V value)
+	{
+		if (map.putIfAbsent(key, value) != null)
+			return;
+		order.offer(key);
+		K oldest;
+		while (map.size() > capacity && (oldest = order.poll()) != null)
+			map.remove(oldest);
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear()
+	{
+		map.clear();
+		order.clear();
+	}
+
+	/**
+	 * @return the amount of entries in the cache.
+	 */
+	public int size()
+	{
+		return map.size();
+	}
+
+}
@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.struct;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A matcher for the simple regular expressions that path variables usually use, 
+ * like <code>[0-9]+</code>, <code>[A-Za-z0-9_-]+</code>, or <code>[0-9a-f]{8}-[0-9a-f]{4}-...</code>,
+ * which tests a region of a string without creating a {@link java.util.regex.Matcher}.
+ * <p>Only sequences of character classes, escapes like <code>\d</code> and <code>\w</code>, and literal characters, 
+ * each with an optional greedy quantifier, can be compiled. Expressions with anything else 
+ * (or where a greedy match without backtracking would not be the same as a full regex match) are not supported.
+ * @author Matthew Tropiano
+ */
+final class PathSegmentMatcher
+{
+	/** Unbounded repeat count. */
+	private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+	/** The sequence of terms to match. */
+	private Term[] terms;
+	
+	private PathSegmentMatcher(Term[] terms)
+	{
+		this.terms = terms;
+	}
+	
+	/**
+	 * Compiles a regular expression into a matcher.
+	 * @param regex the regular expression.
+	 * @return a new matcher, or null if the expression is not supported.
+	 */
+	static PathSegmentMatcher compile(String regex)
+	{
+		int i = 0;
+		int end = regex.length();
+		if (i < end && regex.charAt(i) == '^')
+			i++;
+		if (end - 1 > i && regex.charAt(end - 1) == '$' && regex.charAt(end - 2) != '\\')
+			end--;
+
+		List<Term> terms = new ArrayList<>(4);
+		while (i < end)
+		{
+			Term term = new Term();
+			char c = regex.charAt(i++);
+			if (c == '[')
+			{
+				if ((i = parseClass(regex, i, end, term)) < 0)
+					return null;
+			}
+			else if (c == '\\')
+			{
+				if (i >= end || !parseEscape(regex.charAt(i++), term))
+					return null;
+			}
+			else if ("()|.*+?{}[]^$".indexOf(c) >= 0 || !term.add(c))
+				return null;
+			
+			if ((i = parseQuantifier(regex, i, end, term)) < 0)
+				return null;
+			// Code points outside of the BMP count as two chars here, but one in a Pattern.
+			if (term.others && (term.min > 1 || term.max != UNBOUNDED))
+				return null;
+			terms.add(term);
+		}
+		
+		if (terms.isEmpty())
+			return null;
+		
+		// A greedy match is only the same as a regex match if a variable-length term 
+		// can't take characters that the terms after it need (up to the next required one).
+		for (int t = 0; t < terms.size(); t++)
+		{
+			Term term = terms.get(t);
+			if (term.min == term.max)
+				continue;
+			for (int u = t + 1; u < terms.size(); u++)
+			{
+				if (term.intersects(terms.get(u)))
+					return null;
+				if (terms.get(u).min > 0)
+					break;
+			}
+		}
+		
+		return new PathSegmentMatcher(terms.toArray(new Term[terms.size()]));
+	}
+	
+	// Parses a character class after its opening bracket, returning the index after its closing bracket, or -1 if unsupported.
+	private static int parseClass(String regex, int i, int end, Term term)
+	{
+		boolean negate = false;
+		if (i < end && regex.charAt(i) == '^')
+		{
+			negate = true;
+			i++;
+		}
+		
+		boolean first = true;
+		while (i < end)
+		{
+			char c = regex.charAt(i++);
+			if (c == ']' && !first)
+			{
+				if (negate)
+					term.negate();
+				return i;
+			}
+			else if (c == '[' || c == ']' || (c == '&' && i < end && regex.charAt(i) == '&'))
+			{
+				return -1;
+			}
+			else if (c == '\\')
+			{
+				if (i >= end)
+					return -1;
+				char e = regex.charAt(i++);
+				if (Character.isLetterOrDigit(e))
+				{
+					// Class escapes can't be range bounds.
+					if (!parseEscape(e, term) || (i < end && regex.charAt(i) == '-' && i + 1 < end && regex.charAt(i + 1) != ']'))
+						return -1;
+				}
+				else if ((i = parseRange(regex, i, end, e, term)) < 0)
+					return -1;
+			}
+			else if ((i = parseRange(regex, i, end, c, term)) < 0)
+				return -1;
+			first = false;
+		}
+		return -1;
+	}
+
+	// Parses a possible range after its first character, returning the index after it, or -1 if unsupported.
+	private static int parseRange(String regex, int i, int end, char c, Term term)
+	{
+		if (i + 1 < end && regex.charAt(i) == '-' && regex.charAt(i + 1) != ']')
+		{
+			char last = regex.charAt(i + 1);
+			if (last == '\\' || last == '[' || last < c)
+				return -1;
+			for (char x = c; x <= last; x++)
+				if (!term.add(x))
+					return -1;
+			return i + 2;
+		}
+		return term.add(c) ? i : -1;
+	}
+	
+	// Adds an escaped character to a term, returning false if unsupported.
+	private static boolean parseEscape(char c, Term term)
+	{
+		switch (c)
+		{
+			case 'd':
+				term.addRange('0', '9');
+				return true;
+			case 'w':
+				term.addRange('a', 'z');
+				term.addRange('A', 'Z');
+				term.addRange('0', '9');
+				term.add('_');
+				return true;
+			default:
+				// only escaped punctuation is a plain literal.
+				return c < 128 && !Character.isLetterOrDigit(c) && term.add(c);
+		}
+	}
+
+	// Parses an optional greedy quantifier, returning the index after it, or -1 if unsupported.
+	private static int parseQuantifier(String regex, int i, int end, Term term)
+	{
+		term.min = 1;
+		term.max = 1;
+		if (i >= end)
+			return i;
+		
+		switch (regex.charAt(i))
+		{
+			case '+':
+				term.max = UNBOUNDED;
+				i++;
+				break;
+			case '*':
+				term.min = 0;
+				term.max = UNBOUNDED;
+				i++;
+				break;
+			case '?':
+				term.min = 0;
+				i++;
+				break;
+			case '{':
+			{
+				int close = regex.indexOf('}', i);
+				if (close < 0 || close >= end)
+					return -1;
+				String bounds = regex.substring(i + 1, close);
+				int comma = bounds.indexOf(',');
+				try {
+					if (comma < 0)
+						term.min = term.max = Integer.parseInt(bounds);
+					else
+					{
+						term.min = Integer.parseInt(bounds.substring(0, comma));
+						term.max = comma == bounds.length() - 1 ? UNBOUNDED : Integer.parseInt(bounds.substring(comma + 1));
+					}
+				} catch (NumberFormatException e) {
+					return -1;
+				}
+				if (term.min < 0 || term.max < term.min)
+					return -1;
+				i = close + 1;
+				break;
+			}
+			default:
+				return i;
+		}
+		
+		// Reluctant or possessive quantifiers.
+		if (i < end && (regex.charAt(i) == '?' || regex.charAt(i) == '+'))
+			return -1;
+		return i;
+	}
+	
+	/**
+	 * Tests if a region of a string matches this matcher in full.
+	 * @param s the string.
+	 * @param start the starting index (inclusive).
+	 * @param end the ending index (exclusive).
+	 * @return true if the whole region matches, false if not.
+	 */
+	boolean matches(String s, int start, int end)
+	{
+		int i = start;
+		for (int t = 0; t < terms.length; t++)
+		{
+			Term term = terms[t];
+			int max = term.max;
+			int n = 0;
+			while (n < max && i < end && term.accepts(s.charAt(i)))
+			{
+				i++;
+				n++;
+			}
+			if (n < term.min)
+				return false;
+		}
+		return i == end;
+	}
+	
+	/**
+	 * A single character class and its repeat count.
+	 */
+	private static class Term
+	{
+		/** Accepted characters 0 to 63. */
+		private long low;
+		/** Accepted characters 64 to 127. */
+		private long high;
+		/** If true, all non-ASCII characters are accepted. */
+		private boolean others;
+		private int min;
+		private int max;
+		
+		private boolean add(char c)
+		{
+			if (c >= 128)
+				return false;
+			if (c < 64)
+				low |= 1L << c;
+			else
+				high |= 1L << (c - 64);
+			return true;
+		}
+		
+		private void addRange(char first, char last)
+		{
+			for (char c = first; c <= last; c++)
+				add(c);
+		}
+		
+		private void negate()
+		{
+			low = ~low;
+			high = ~high;
+			others = true;
+		}
+		
+		private boolean intersects(Term term)
+		{
+			return (low & term.low) != 0 || (high & term.high) != 0 || (others && term.others);
+		}
+		
+		private boolean accepts(char c)
+		{
+			if (c < 64)
+				return (low & (1L << c)) != 0;
+			else if (c < 128)
+				return (high & (1L << (c - 64))) != 0;
+			else
+				return others;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.struct;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only map of path variables, backed by arrays of names and values in path order.
+ * Values can be read by slot (index in the path) as well as by name.
+ * @author Matthew Tropiano
+ */
+public class PathVariableMap extends AbstractMap<String, String>
+{
+	/** Variable names, in path order. */
+	private String[] names;
+	/** Variable values, in path order. */
+	private String[] values;
+	/** Amount of variables. */
+	private int size;
+	/** Entry set view. */
+	private Set<Entry<String, String>> entrySet;
+	
+	/**
+	 * Creates a new path variable map.
+	 * @param names the variable names.
+	 * @param values the variable values (can be longer than the names).
+	 * @param size the amount of variables.
+	 */
+	PathVariableMap(String[] names, String[] values, int size)
+	{
+		this.names = names;
+		this.values = values;
+		this.size = size;
+		this.entrySet = null;
+	}
+	
+	/**
+	 * Checks if this map uses a specific array of names, 
+	 * which means that slots found in that array can be used on this map.
+	 * @param names the array of names.
+	 * @return true if so, false if not.
+	 */
+	public boolean hasNames(String[] names)
+	{
+		return this.names == names;
+	}
+	
+	/**
+	 * Gets a variable name by slot.
+	 * @param slot the slot index.
+	 * @return the name.
+	 * @throws ArrayIndexOutOfBoundsException if the slot is less than 0 or greater than or equal to {@link #size()}.
+	 */
+	public String getName(int slot)
+	{
+		if (slot >= size)
+			throw new ArrayIndexOutOfBoundsException(slot);
+		return names[slot];
+	}
+	
+	/**
+	 * Gets a variable value by slot.
+	 * @param slot the slot index.
+	 * @return the value.
+	 * @throws ArrayIndexOutOfBoundsException if the slot is less than 0 or greater than or equal to {@link #size()}.
+	 */
+	public String getValue(int slot)
+	{
+		if (slot >= size)
+			throw new ArrayIndexOutOfBoundsException(slot);
+		return values[slot];
+	}
+	
+	/**
+	 * Gets the slot for a variable name.
+	 * @param name the variable name.
+	 * @return the slot index, or -1 if no such variable.
+	 */
+	public int getSlot(Object name)
+	{
+		for (int i = 0; i < size; i++)
+			if (names[i].equals(name))
+				return i;
+		return -1;
+	}
+	
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key)
+	{
+		return getSlot(key) >= 0;
+	}
+	
+	@Override
+	public String get(Object key)
+	{
+		int slot = getSlot(key);
+		return slot >= 0 ? values[slot] : null;
+	}
+	
+	@Override
+	public Set<Entry<String, String>> entrySet()
+	{
+		if (entrySet == null)
+		{
+			entrySet = new AbstractSet<Entry<String, String>>()
+			{
+				@Override
+				public Iterator<Entry<String, String>> iterator()
+				{
+					return new Iterator<Entry<String, String>>()
+					{
+						private int i = 0;
+						
+						@Override
+						public boolean hasNext()
+						{
+							return i < size;
+						}
+						
+						@Override
+						public Entry<String, String> next()
+						{
+							if (i >= size)
+								throw new NoSuchElementException();
+							Entry<String, String> out = new SimpleImmutableEntry<>(names[i], values[i]);
+							i++;
+							return out;
+						}
+					};
+				}
+				
+				@Override
+				public int size()
+				{
+					return size;
+				}
+			};
+		}
+		return entrySet;
+	}
+	
+}
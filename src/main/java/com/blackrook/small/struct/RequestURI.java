@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.struct;
+
+/**
+ * A request URI, split into its parts once by offset.
+ * <p>The path ends at the last dot, if any, which starts the extension.
+ * The file name starts after the last slash. The query, if any, starts after the first question mark,
+ * unless the query was supplied separately (servlet request URIs do not contain it).
+ * The routing key is the path without leading or trailing slashes.
+ * <p>Parts are cut from the original URI when they are first asked for, and kept.
+ * @author Matthew Tropiano
+ */
+public final class RequestURI
+{
+	/** The full request URI. */
+	private String uri;
+	/** Offset of the end of the path. */
+	private int pathEnd;
+	/** Offset of the end of the extension (and start of the query, if any). */
+	private int end;
+	/** Offset of the start of the file name. */
+	private int fileNameStart;
+	/** Offset of the start of the routing key. */
+	private int routingKeyStart;
+	/** Offset of the end of the routing key. */
+	private int routingKeyEnd;
+
+	private String path;
+	private String pathExtension;
+	private String fileName;
+	private String query;
+	private String routingKey;
+	
+	/**
+	 * Parses a request URI.
+	 * @param uri the request URI.
+	 * @param query the query string, if separate from the URI (can be null). 
+	 * 		If null, the part after the first question mark in the URI is the query, if any.
+	 */
+	public RequestURI(String uri, String query)
+	{
+		int end = uri.indexOf('?');
+		if (end < 0)
+			end = uri.length();
+		int extIndex = uri.lastIndexOf('.', end - 1);
+		int pathEnd = extIndex >= 0 ? extIndex : end;
+		
+		int routingKeyStart = 0;
+		while (routingKeyStart < pathEnd && uri.charAt(routingKeyStart) == '/')
+			routingKeyStart++;
+		int routingKeyEnd = pathEnd;
+		while (routingKeyEnd > routingKeyStart && uri.charAt(routingKeyEnd - 1) == '/')
+			routingKeyEnd--;
+		
+		this.uri = uri;
+		this.pathEnd = pathEnd;
+		this.end = end;
+		this.fileNameStart = uri.lastIndexOf('/', end - 1) + 1;
+		this.routingKeyStart = routingKeyStart;
+		this.routingKeyEnd = routingKeyEnd;
+		
+		this.path = null;
+		this.pathExtension = null;
+		this.fileName = null;
+		this.query = query != null ? query : (end < uri.length() ? uri.substring(end + 1) : null);
+		this.routingKey = null;
+	}
+	
+	/**
+	 * @return the full request URI.
+	 */
+	public String getURI()
+	{
+		return uri;
+	}
+	
+	/**
+	 * @return the offset of the end of the path in the URI (and start of the extension, if any).
+	 */
+	public int getPathEnd()
+	{
+		return pathEnd;
+	}
+	
+	/**
+	 * @return the offset of the end of the extension in the URI (and start of the query, if any).
+	 */
+	public int getEnd()
+	{
+		return end;
+	}
+	
+	/**
+	 * @return the offset of the start of the routing key in the URI.
+	 */
+	public int getRoutingKeyStart()
+	{
+		return routingKeyStart;
+	}
+	
+	/**
+	 * Gets the rest of the path from an offset in the routing key, plus the path extension.
+	 * This is usually one cut from the URI.
+	 * @param routingKeyOffset the offset in the routing key (for example, where a "default" route segment matched).
+	 * @return the rest of the path, starting with a slash.
+	 * @see #getRoutingKey()
+	 */
+	public String getPathRemainder(int routingKeyOffset)
+	{
+		int start = routingKeyStart + routingKeyOffset;
+		if (start > 0 && uri.charAt(start - 1) == '/' && routingKeyEnd == pathEnd)
+			return uri.substring(start - 1, end);
+		else
+			return '/' + uri.substring(start, routingKeyEnd) + getPathExtension();
+	}
+	
+	/**
+	 * @return the path, without the extension or query.
+	 */
+	public String getPath()
+	{
+		String out;
+		if ((out = path) == null)
+			path = out = pathEnd == uri.length() ? uri : uri.substring(0, pathEnd);
+		return out;
+	}
+	
+	/**
+	 * @return the path extension (includes the dot), or the empty string if none.
+	 */
+	public String getPathExtension()
+	{
+		String out;
+		if ((out = pathExtension) == null)
+			pathExtension = out = uri.substring(pathEnd, end);
+		return out;
+	}
+	
+	/**
+	 * @return the file name, which is everything after the last slash, not including the query.
+	 */
+	public String getFileName()
+	{
+		String out;
+		if ((out = fileName) == null)
+			fileName = out = uri.substring(fileNameStart, end);
+		return out;
+	}
+	
+	/**
+	 * @return the query string, or null if none.
+	 */
+	public String getQuery()
+	{
+		return query;
+	}
+	
+	/**
+	 * @return the path with no leading or trailing slashes, for searching routes.
+	 */
+	public String getRoutingKey()
+	{
+		String out;
+		if ((out = routingKey) == null)
+			routingKey = out = routingKeyStart == 0 && routingKeyEnd == uri.length() ? uri : uri.substring(routingKeyStart, routingKeyEnd);
+		return out;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return uri;
+	}
+	
+}
@@ -17,6 +17,7 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import com.blackrook.small.struct.TypeProfileFactory.Profile;
 
@@ -115,6 +116,30 @@ class TypeConverter
 		throw new ClassCastException("Object could not be converted: "+memberName+" is "+object.getClass()+", target is "+targetType);
 	}
 
+	/**
+	 * Creates a converter that converts objects to a single target type, 
+	 * yielding the same results as {@link #createForType(String, Object, Class)}.
+	 * The null value and the conversion for String values are resolved once, here. 
+	 * @param <T> the return object type.
+	 * @param memberName the name of the member that is being converted (for reporting). 
+	 * @param targetType the target class type to convert to.
+	 * @return a converter function.
+	 */
+	<T> Function<Object, T> createConverter(final String memberName, final Class<T> targetType)
+	{
+		final T nullValue = createForType(memberName, null, targetType);
+		final Function<String, T> stringConverter = createStringConverter(targetType);
+		return (object) -> 
+		{
+			if (object == null)
+				return nullValue;
+			else if (stringConverter != null && object instanceof String)
+				return stringConverter.apply((String)object);
+			else
+				return createForType(memberName, object, targetType);
+		};
+	}
+
 	/**
 	 * Applies an object value to a target object via a "field" name (setter/field).
 	 * @param <T> the target object type.
@@ -452,6 +477,37 @@ class TypeConverter
 		throw new ClassCastException("Object could not be converted: "+memberName+" is String, target is "+targetType);
 	}
 
+	/**
+	 * Creates a converter for String values to a target type, 
+	 * for the target types that {@link #convertString(String, String, Class)} always converts.
+	 * @param <T> the target value type.
+	 * @param targetType the target type.
+	 * @return the converter, or null if String values to this type need to go through {@link #convertString(String, String, Class)}.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static <T> Function<String, T> createStringConverter(final Class<T> targetType)
+	{
+		if (targetType == Boolean.TYPE || targetType == Boolean.class)
+			return (s) -> (T)Boolean.valueOf(parseBoolean(s));
+		else if (targetType == Byte.TYPE || targetType == Byte.class)
+			return (s) -> (T)Byte.valueOf(parseByte(s));
+		else if (targetType == Short.TYPE || targetType == Short.class)
+			return (s) -> (T)Short.valueOf(parseShort(s));
+		else if (targetType == Integer.TYPE || targetType == Integer.class)
+			return (s) -> (T)Integer.valueOf(parseInt(s));
+		else if (targetType == Float.TYPE || targetType == Float.class)
+			return (s) -> (T)Float.valueOf(parseFloat(s));
+		else if (targetType == Long.TYPE || targetType == Long.class)
+			return (s) -> (T)Long.valueOf(parseLong(s));
+		else if (targetType == Double.TYPE || targetType == Double.class)
+			return (s) -> (T)Double.valueOf(parseDouble(s));
+		else if (targetType == String.class || targetType == Object.class)
+			return (s) -> (T)s;
+		else if (targetType.isEnum())
+			return (s) -> targetType.cast(getEnumInstance(s, (Class<Enum>)targetType));
+		return null;
+	}
+
 	/**
 	 * Converts an array value to a target type.
 	 * @param <T> the target value type.
@@ -8,18 +8,24 @@
 package com.blackrook.small.struct;
 
 import java.io.PrintStream;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Map;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.TreeSet;
+import java.util.function.BinaryOperator;
+import java.util.function.ToIntFunction;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
-import com.blackrook.small.util.SmallUtils;
-
 /**
  * A trie that organizes mapping URI patterns to values.
+ * <p>Paths are added to a mutable node tree, which is compiled into an immutable router 
+ * on the first call to {@link #resolve(String)} after any change, or by {@link #compile()}. 
+ * The router scans the incoming path by character offset, and does not split or copy it. 
+ * Chains of single exact-match segments are compiled into one node that compares the whole chain at once.
+ * <p>Values can optionally belong to one or more groups (as bits in an int), and searches can 
+ * be restricted to a set of groups. A restricted search behaves as though the trie only contained 
+ * the values in those groups, so several tries that share path structure can be folded into one.
  * @author Matthew Tropiano
  * @param <V> the value type at a resolved node.
  */
@@ -28,25 +34,70 @@ public class URITrie<V>
 	/** Token content for "default" path. */
 	public static final String DEFAULT_TOKEN = "*";
 
+	/** All groups. */
+	public static final int ALL_GROUPS = -1;
+
+	/** No path variables. */
+	private static final String[] NO_VARIABLES = new String[0];
+
+	/** Shared result for paths that do not resolve to anything. */
+	@SuppressWarnings("rawtypes")
+	private static final Result NO_MATCH = new Result<>(false);
+	/** Shared result for paths that do not resolve to anything, after going through path variable or default segments. */
+	@SuppressWarnings("rawtypes")
+	private static final Result NO_DYNAMIC_MATCH = new Result<>(true);
+
 	/** Root node. */
 	private Node<V> root; 
+	/** Function for getting the groups of a value. */
+	private ToIntFunction<V> groupFunction;
+	/** Compiled router. Null if not compiled since the last change. */
+	private Router<V> router; 
 
 	/**
 	 * Creates a new blank URI Trie.
+	 * All values are in all groups.
 	 */
 	public URITrie()
+	{
+		this((value) -> ALL_GROUPS);
+	}
+	
+	/**
+	 * Creates a new blank URI Trie.
+	 * @param groupFunction the function that returns the groups (as bits) that a value belongs to.
+	 */
+	public URITrie(ToIntFunction<V> groupFunction)
 	{
 		this.root = Node.createRoot();
+		this.groupFunction = groupFunction;
+		this.router = null;
 	}
 	
 	/**
 	 * Adds a path to the trie.
+	 * If the path already has a value, it is replaced.
 	 * @param uri the request URI path.
 	 * @param value the mapped value.
 	 * @throws ParseException if a path parsing error occurs.
 	 * @throws PatternSyntaxException if a regex expression is invalid in one of the paths.
 	 */
 	public void add(String uri, V value)
+	{
+		add(uri, value, null);
+	}
+	
+	/**
+	 * Adds a path to the trie.
+	 * <p>Paths that differ only by path variable names (but not their patterns) end on the same node.
+	 * @param uri the request URI path.
+	 * @param value the mapped value.
+	 * @param merger if not null and the path already has a value, this is called with the existing value and the new one, 
+	 * 		and the value that it returns is set on the path.
+	 * @throws ParseException if a path parsing error occurs.
+	 * @throws PatternSyntaxException if a regex expression is invalid in one of the paths.
+	 */
+	public void add(String uri, V value, BinaryOperator<V> merger)
 	{
 		final int STATE_START = 0;
 		final int STATE_PATH = 1;
@@ -170,7 +221,8 @@ public class URITrie<V>
 			
 		}
 		
-		endNode.value = value;
+		endNode.value = merger != null && endNode.value != null ? merger.apply(endNode.value, value) : value;
+		router = null;
 	}
 
 	private Node<V> nextAddNode(Node<V> endNode, Node<V> node)
@@ -190,69 +242,60 @@ public class URITrie<V>
 	}
 	
 	/**
-	 * Attempts to resolve a value for a given URI.
-	 * @param uri the input URI.
-	 * @return a result object detailing the search.
+	 * Gets the names of the path variables in a URI path, in path order.
+	 * This is the order of the values in a {@link Result} found through that path.
+	 * @param uri the request URI path, as it would be added to the trie.
+	 * @return the variable names (empty if none).
+	 * @see Result#getPathVariableValue(int)
 	 */
-	public Result<V> resolve(String uri)
+	public static String[] getPathVariableNames(String uri)
 	{
-		Node<V> next = root;
-		Result<V> out = new Result<V>();
-		
-		uri = trimSlashes(uri);
-		Queue<String> pathTokens = new LinkedList<>();
-		
-		for (String p : uri.split("\\/"))
-			pathTokens.add(p);
-
-		String pathPart = null;
-		while (next != null && next.type != NodeType.DEFAULT && !pathTokens.isEmpty())
-		{
-			pathPart = pathTokens.poll();
-			TreeSet<Node<V>> edgeList = next.edges;
-			boolean matched = false;
-			if (!edgeList.isEmpty()) 
-			{
-				for (Node<V> edge : edgeList)
-				{
-					if (edge.matches(pathPart))
-					{
-						if (edge.type == NodeType.PATHVARIABLE)
-							out.addVariable(edge.token, pathPart);
-						next = edge;
-						matched = true;
-						break;
-					}
-				}
-				if (!matched)
-				{
-					if (next.type != NodeType.DEFAULT)
-						next = null;
-					break;
-				}
-			}
-			else
-			{
-				next = null;
-			}
-		}
-		
-		if (next != null)
+		List<String> out = new ArrayList<>(4);
+		for (String segment : uri.split("/"))
 		{
-			out.value = next.value;
-			if (next.type == NodeType.DEFAULT)
+			if (segment.length() > 0 && segment.charAt(0) == '@')
 			{
-				out.remainder = '/' + pathPart;
-				if (!pathTokens.isEmpty())
-				{
-					String[] ts = new String[pathTokens.size()];
-					pathTokens.toArray(ts);
-					out.remainder = out.remainder + SmallUtils.addBeginningSlash(SmallUtils.removeEndingSlash(Utils.join("/", ts)));
-				}
+				int colon = segment.indexOf(':');
+				out.add(segment.substring(1, colon >= 0 ? colon : segment.length()).trim().intern());
 			}
 		}
-		
-		return out;
+		return out.isEmpty() ? NO_VARIABLES : out.toArray(new String[out.size()]);
+	}
+	
+	/**
+	 * Attempts to resolve a value for a given URI.
+	 * @param uri the input URI.
+	 * @return a result object detailing the search.
+	 */
+	public Result<V> resolve(String uri)
+	{
+		return resolve(uri, ALL_GROUPS);
+	}
+	
+	/**
+	 * Attempts to resolve a value for a given URI, only considering values in a set of groups.
+	 * @param uri the input URI.
+	 * @param groups the groups to consider (as bits).
+	 * @return a result object detailing the search.
+	 * @see Result#getBypassedGroups()
+	 */
+	public Result<V> resolve(String uri, int groups)
+	{
+		Router<V> r;
+		if ((r = router) == null)
+			router = r = new Router<>(root, groupFunction);
+		return r.resolve(uri, groups);
+	}
+	
+	/**
+	 * Compiles the router for this trie, if it is not compiled since the last change.
+	 * A compiled trie that is not changed afterward can be searched from several threads at once,
+	 * as long as it was published to them safely (for example, through a <code>volatile</code> field).
+	 */
+	public void compile()
+	{
+		if (router == null)
+			router = new Router<>(root, groupFunction);
 	}
 	
 	private enum NodeType
@@ -269,22 +312,43 @@ public class URITrie<V>
 	 */
 	public static class Result<V>
 	{
-		private Map<String, String> pathVariables;
 		private V value;
+		private String[] variableNames;
+		private String[] variableValues;
+		/** The searched URI, if there is a remainder. */
+		private String uri;
+		/** Offset of the remainder in the URI (after its slash), or -1 if none. */
+		private int remainderStart;
+		/** Offset of the end of the remainder in the URI. */
+		private int remainderEnd;
+		/** The remainder, cut from the URI on first request. */
 		private String remainder;
+		private int bypassedGroups;
+		/** If true, the search went through path variable or default segments. */
+		private boolean dynamic;
 		
-		private Result()
+		private Result(boolean dynamic)
 		{
-			this.pathVariables = null;
-			this.value = null;
-			this.remainder = null;
+			this(null, NO_VARIABLES, null, 0);
+			this.dynamic = dynamic;
 		}
 		
-		private void addVariable(String var, String value)
+		private Result(V value, String[] variableNames, String[] variableValues, int bypassedGroups)
 		{
-			if (pathVariables == null)
-				pathVariables = new HashMap<>();
-			pathVariables.put(var, value);
+			this(value, variableNames, variableValues, null, -1, -1, bypassedGroups);
+		}
+		
+		private Result(V value, String[] variableNames, String[] variableValues, String uri, int remainderStart, int remainderEnd, int bypassedGroups)
+		{
+			this.value = value;
+			this.variableNames = variableNames;
+			this.variableValues = variableValues;
+			this.uri = uri;
+			this.remainderStart = remainderStart;
+			this.remainderEnd = remainderEnd;
+			this.remainder = null;
+			this.bypassedGroups = bypassedGroups;
+			this.dynamic = variableNames.length > 0 || remainderStart >= 0;
 		}
 		
 		/**
@@ -307,20 +371,421 @@ public class URITrie<V>
 		
 		/**
 		 * Gets the path remainder, if this is a "default" path.
-		 * @return the path remainder.
+		 * The remainder starts with a slash, and is the part of the searched URI that the default segment matched.
+		 * @return the path remainder, or null if no remainder.
 		 */
 		public String getRemainder()
 		{
-			return remainder;
+			String out;
+			if ((out = remainder) == null && remainderStart >= 0)
+			{
+				// The slash before the remainder is in the URI unless the remainder starts it.
+				if (remainderStart > 0 && uri.charAt(remainderStart - 1) == '/')
+					remainder = out = uri.substring(remainderStart - 1, remainderEnd);
+				else
+					remainder = out = '/' + uri.substring(remainderStart, remainderEnd);
+			}
+			return out;
+		}
+		
+		/**
+		 * Gets the offset of the path remainder in the searched URI (after the remainder's leading slash), 
+		 * if this is a "default" path. 
+		 * @return the offset, or -1 if no remainder.
+		 * @see #getRemainder()
+		 */
+		public int getRemainderStart()
+		{
+			return remainderStart;
+		}
+		
+		/**
+		 * Gets the offset of the end of the path remainder in the searched URI, if this is a "default" path. 
+		 * @return the offset, or -1 if no remainder.
+		 * @see #getRemainder()
+		 */
+		public int getRemainderEnd()
+		{
+			return remainderEnd;
 		}
 		
 		/**
 		 * Gets the map of found path variables, if any.
-		 * @return the map of variables, or null if no variables.
+		 * The variable names are the ones on the path that first created each variable segment, 
+		 * so paths that share a node but name their variables differently should use {@link #getPathVariables(String[])}.
+		 * @return a map of variables, or null if no variables.
 		 */
-		public Map<String, String> getPathVariables() 
+		public PathVariableMap getPathVariables() 
 		{
-			return pathVariables;
+			return getPathVariables(variableNames);
+		}
+		
+		/**
+		 * Gets the map of found path variables, if any, using a different set of names.
+		 * @param names the names of the variables, in path order.
+		 * @return a map of variables, or null if no variables.
+		 * @see URITrie#getPathVariableNames(String)
+		 */
+		public PathVariableMap getPathVariables(String[] names) 
+		{
+			if (names.length == 0 || variableNames.length == 0)
+				return null;
+			return new PathVariableMap(names, variableValues, Math.min(names.length, variableNames.length));
+		}
+
+		/**
+		 * Gets the amount of path variables found.
+		 * @return the amount of path variables.
+		 */
+		public int getPathVariableCount()
+		{
+			return variableNames.length;
+		}
+		
+		/**
+		 * Gets a path variable value by its index in the path (first variable segment is 0, the next is 1, and so on).
+		 * @param index the variable index.
+		 * @return the value.
+		 * @throws ArrayIndexOutOfBoundsException if the index is less than 0 or greater than or equal to {@link #getPathVariableCount()}.
+		 */
+		public String getPathVariableValue(int index)
+		{
+			if (index >= variableNames.length)
+				throw new ArrayIndexOutOfBoundsException(index);
+			return variableValues[index];
+		}
+		
+		/**
+		 * Gets the groups that this search passed over on the way to its result,
+		 * because a branch with higher precedence had no values in those groups.
+		 * The value found for those groups (if any) is found by resolving the path again, 
+		 * restricted to those groups.
+		 * @return the bypassed groups (as bits), or 0 if none.
+		 */
+		public int getBypassedGroups()
+		{
+			return bypassedGroups;
+		}
+		
+		/**
+		 * Checks if this search only went through exact-match path segments, and not path variable or default segments.
+		 * For a result without a value, this means that the path was turned away before reaching any of those.
+		 * @return true if so, false if not.
+		 * @since 1.7.0
+		 */
+		public boolean isStaticPath()
+		{
+			return !dynamic;
+		}
+		
+	}
+
+	/**
+	 * The compiled, immutable form of the trie.
+	 */
+	private static class Router<V>
+	{
+		private RouterNode<V> root;
+		
+		private Router(Node<V> root, ToIntFunction<V> groupFunction)
+		{
+			this.root = new RouterNode<>(root, NO_VARIABLES, groupFunction);
+		}
+		
+		@SuppressWarnings("unchecked")
+		private Result<V> resolve(String uri, int groups)
+		{
+			int start = 0;
+			int end = uri.length();
+			while (start < end && uri.charAt(start) == '/')
+				start++;
+			while (end > start && uri.charAt(end - 1) == '/')
+				end--;
+
+			RouterNode<V> node = root;
+			String[] variables = null;
+			int variableCount = 0;
+			int remainderStart = -1;
+			int viable = groups & root.subtreeGroups;
+			int bypassed = 0;
+			boolean dynamic = false;
+			
+			// An empty path is still one (empty) segment.
+			int segmentStart = start;
+			while (segmentStart <= end)
+			{
+				int segmentEnd = uri.indexOf('/', segmentStart);
+				if (segmentEnd < 0 || segmentEnd > end)
+					segmentEnd = end;
+				
+				RouterNode<V> next;
+				if ((next = node.matchEdge(uri, segmentStart, segmentEnd, groups)) == null)
+				{
+					if ((next = node.variableEdge(uri, segmentStart, segmentEnd, groups)) != null)
+					{
+						if (variables == null)
+							variables = new String[root.maxVariables];
+						variables[variableCount++] = uri.substring(segmentStart, segmentEnd);
+						dynamic = true;
+					}
+					else if ((next = node.defaultEdge) == null || (next.subtreeGroups & groups) == 0)
+					{
+						// Root path with no root edge that accepts it.
+						if (node == root && start == end && (root.groups & groups) != 0)
+							return root.result;
+						return noMatch(bypassed, dynamic);
+					}
+				}
+				
+				// Groups with nothing down this edge would have taken another one.
+				bypassed |= viable & ~next.subtreeGroups;
+				viable &= next.subtreeGroups;
+				node = next;
+				if (node.type == NodeType.DEFAULT)
+				{
+					remainderStart = segmentStart;
+					break;
+				}
+				
+				// The rest of a chain of single exact matches must follow.
+				if (node.tail != null)
+				{
+					int tailEnd = segmentEnd + node.tail.length();
+					if (tailEnd > end || !uri.startsWith(node.tail, segmentEnd) || (tailEnd < end && uri.charAt(tailEnd) != '/'))
+						return noMatch(bypassed, dynamic);
+					segmentEnd = tailEnd;
+				}
+				segmentStart = segmentEnd + 1;
+			}
+			
+			if ((node.groups & groups) == 0)
+				return noMatch(bypassed, dynamic || remainderStart >= 0);
+			else if (variables == null && remainderStart < 0 && bypassed == 0)
+				return node.result;
+			else if (remainderStart < 0)
+				return new Result<>(node.value, node.variableNames, variables, bypassed);
+			else
+				return new Result<>(node.value, node.variableNames, variables, uri, remainderStart, end, bypassed);
+		}
+		
+		@SuppressWarnings("unchecked")
+		private static <V> Result<V> noMatch(int bypassed, boolean dynamic)
+		{
+			if (bypassed == 0)
+				return (Result<V>)(dynamic ? NO_DYNAMIC_MATCH : NO_MATCH);
+			Result<V> out = new Result<>(null, NO_VARIABLES, null, bypassed);
+			out.dynamic = dynamic;
+			return out;
+		}
+		
+	}
+	
+	/**
+	 * Creates a new array of compiled nodes.
+	 * @param length the array length.
+	 * @return the new array.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <V> RouterNode<V>[] newRouterNodeArray(int length)
+	{
+		return (RouterNode<V>[])new RouterNode<?>[length];
+	}
+
+	/**
+	 * A single compiled node.
+	 * Edges are split by type: exact matches are found via hash lookup, 
+	 * and variable edges are tested in precedence order afterward.
+	 * A node with no value and one exact-match edge takes on that edge's segment 
+	 * as part of its tail (and that edge's value and edges), and so on down the chain.
+	 */
+	private static class RouterNode<V>
+	{
+		private NodeType type;
+		private String token;
+		/** Segments that must follow this node's segment, each with a leading slash. Null if none. */
+		private String tail;
+		private Pattern pattern;
+		/** Matcher for the pattern that doesn't need a regex Matcher, if the pattern is simple enough. */
+		private PathSegmentMatcher matcher;
+		private V value;
+		/** Groups of this node's value (0 if no value). */
+		private int groups;
+		/** Groups of all values at and below this node. */
+		private int subtreeGroups;
+		/** Names of the path variables on the way to this node, in path order. */
+		private String[] variableNames;
+		/** Most path variables on the way to any node at or below this one. */
+		private int maxVariables;
+		/** Precomputed result for this node, if it has a value and is reached without variables. */
+		private Result<V> result;
+		
+		private StaticEdgeTable<V> matchEdges;
+		private RouterNode<V>[] variableEdges;
+		private RouterNode<V> defaultEdge;
+		
+		@SuppressWarnings("unchecked")
+		private RouterNode(Node<V> node, String[] variableNames, ToIntFunction<V> groupFunction)
+		{
+			this.type = node.type;
+			this.token = node.token;
+			this.pattern = node.pattern;
+			this.matcher = node.regex != null ? PathSegmentMatcher.compile(node.regex) : null;
+			
+			if (node.type == NodeType.PATHVARIABLE)
+			{
+				variableNames = Arrays.copyOf(variableNames, variableNames.length + 1);
+				variableNames[variableNames.length - 1] = node.token;
+			}
+			this.variableNames = variableNames;
+			
+			// Collapse chains of single exact matches.
+			StringBuilder tail = null;
+			if (node.type != NodeType.ROOT) while (node.value == null && node.edges.size() == 1)
+			{
+				Node<V> edge = node.edges.first();
+				if (edge.type != NodeType.MATCH || isEmpty(edge.token))
+					break;
+				(tail != null ? tail : (tail = new StringBuilder())).append('/').append(edge.token);
+				node = edge;
+			}
+			this.tail = tail != null ? tail.toString() : null;
+			
+			this.value = node.value;
+			this.groups = node.value != null ? groupFunction.applyAsInt(node.value) : 0;
+			this.result = node.value != null ? new Result<>(node.value, NO_VARIABLES, null, 0) : null;
+
+			List<RouterNode<V>> matches = new ArrayList<>();
+			List<RouterNode<V>> variables = new ArrayList<>();
+			this.defaultEdge = null;
+			for (Node<V> edge : node.edges)
+			{
+				switch (edge.type)
+				{
+					case MATCH:
+						// blank match tokens can never match anything.
+						if (!isEmpty(edge.token))
+							matches.add(new RouterNode<>(edge, this.variableNames, groupFunction));
+						break;
+					case PATHVARIABLE:
+						variables.add(new RouterNode<>(edge, this.variableNames, groupFunction));
+						break;
+					case DEFAULT:
+						if (defaultEdge == null)
+							defaultEdge = new RouterNode<>(edge, this.variableNames, groupFunction);
+						break;
+					default:
+						break;
+				}
+			}
+			
+			this.matchEdges = !matches.isEmpty() ? new StaticEdgeTable<>(matches) : null;
+			this.variableEdges = variables.toArray(newRouterNodeArray(variables.size()));
+			
+			int subtreeGroups = this.groups;
+			int maxVariables = this.variableNames.length;
+			List<RouterNode<V>> edges = new ArrayList<>(matches);
+			edges.addAll(variables);
+			if (defaultEdge != null)
+				edges.add(defaultEdge);
+			for (RouterNode<V> edge : edges)
+			{
+				subtreeGroups |= edge.subtreeGroups;
+				maxVariables = Math.max(maxVariables, edge.maxVariables);
+			}
+			this.subtreeGroups = subtreeGroups;
+			this.maxVariables = maxVariables;
+		}
+		
+		/**
+		 * Finds the exact-match edge for a path segment.
+		 * @param path the full path.
+		 * @param start the segment start offset (inclusive).
+		 * @param end the segment end offset (exclusive).
+		 * @param groups the groups to consider.
+		 * @return the matching edge, or null if none.
+		 */
+		private RouterNode<V> matchEdge(String path, int start, int end, int groups)
+		{
+			RouterNode<V> edge;
+			if (matchEdges == null || (edge = matchEdges.get(path, start, end)) == null)
+				return null;
+			return (edge.subtreeGroups & groups) != 0 ? edge : null;
+		}
+		
+		/**
+		 * Finds the first variable edge that accepts a path segment.
+		 * @param path the full path.
+		 * @param start the segment start offset (inclusive).
+		 * @param end the segment end offset (exclusive).
+		 * @param groups the groups to consider.
+		 * @return the matching edge, or null if none.
+		 */
+		private RouterNode<V> variableEdge(String path, int start, int end, int groups)
+		{
+			for (int i = 0; i < variableEdges.length; i++)
+			{
+				RouterNode<V> edge = variableEdges[i];
+				if ((edge.subtreeGroups & groups) == 0)
+					continue;
+				if (edge.pattern == null)
+					return edge;
+				else if (edge.matcher != null ? edge.matcher.matches(path, start, end) : edge.pattern.matcher(path).region(start, end).matches())
+					return edge;
+			}
+			return null;
+		}
+		
+	}
+	
+	/**
+	 * An open-addressed table of exact-match edges, 
+	 * looked up by a region of the path without copying it.
+	 */
+	private static class StaticEdgeTable<V>
+	{
+		private String[] keys;
+		private RouterNode<V>[] nodes;
+		private int mask;
+		
+		private StaticEdgeTable(List<RouterNode<V>> edges)
+		{
+			int capacity = 2;
+			while (capacity < edges.size() * 2)
+				capacity <<= 1;
+			this.keys = new String[capacity];
+			this.nodes = newRouterNodeArray(capacity);
+			this.mask = capacity - 1;
+			for (RouterNode<V> edge : edges)
+			{
+				int i = spread(edge.token.hashCode()) & mask;
+				while (keys[i] != null)
+					i = (i + 1) & mask;
+				keys[i] = edge.token;
+				nodes[i] = edge;
+			}
+		}
+		
+		private RouterNode<V> get(String path, int start, int end)
+		{
+			int length = end - start;
+			int hash = 0;
+			for (int i = start; i < end; i++)
+				hash = 31 * hash + path.charAt(i);
+			
+			int i = spread(hash) & mask;
+			String key;
+			while ((key = keys[i]) != null)
+			{
+				if (key.length() == length && key.regionMatches(0, path, start, length))
+					return nodes[i];
+				i = (i + 1) & mask;
+			}
+			return null;
+		}
+		
+		private static int spread(int hash)
+		{
+			return hash ^ (hash >>> 16);
 		}
 		
 	}
@@ -409,35 +874,6 @@ public class URITrie<V>
 			return 0;
 		}
 		
-		/**
-		 * Tests if this node matches a path part.
-		 * @param pathPart the part of the path to test.
-		 * @return
-		 */
-		private boolean matches(String pathPart)
-		{
-			if (type == NodeType.ROOT || type == NodeType.DEFAULT)
-				return true;
-			else if (type == NodeType.MATCH)
-			{
-				if (!isEmpty(token))
-					return token.equals(pathPart);
-				else if (!isEmpty(pattern))
-					return pattern.matcher(pathPart).matches();
-				else
-					return false;
-			}
-			else if (type == NodeType.PATHVARIABLE)
-			{
-				if (!isEmpty(pattern))
-					return pattern.matcher(pathPart).matches();
-				else
-					return true;
-			}
-			else
-				return false;
-		}
-		
 		@Override
 		@SuppressWarnings("unchecked")
 		public boolean equals(Object obj)
@@ -24,6 +24,7 @@ import java.util.Enumeration;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.function.Function;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
@@ -523,6 +524,21 @@ public final class Utils
 		return DEFAULT_CONVERTER.createForType(memberName, object, targetType);
 	}
 
+	/**
+	 * Creates a converter function that converts objects to a single target type,
+	 * yielding the same results as {@link #createForType(String, Object, Class)}.
+	 * Use this when the same conversion happens many times. 
+	 * @param <T> the return object type.
+	 * @param memberName the name of the member that is being converted (for reporting). 
+	 * @param targetType the target class type to convert to.
+	 * @return a converter function. It throws {@link ClassCastException} if the incoming type cannot be converted.
+	 * @since 1.7.0
+	 */
+	public static <T> Function<Object, T> createConverter(String memberName, Class<T> targetType)
+	{
+		return DEFAULT_CONVERTER.createConverter(memberName, targetType);
+	}
+
 	/**
 	 * Creates a new profile for a provided type.
 	 * Generated profiles are stored in memory, and retrieved again by class type.
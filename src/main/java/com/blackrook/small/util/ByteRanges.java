@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.util;
+
+import java.util.Arrays;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Reads the byte ranges requested by a "Range" header (and its "If-Range" condition) on a request for a file.
+ * @author Matthew Tropiano
+ */
+final class ByteRanges
+{
+	/** Range unit prefix. */
+	private static final String BYTES_PREFIX = "bytes=";
+	/** Maximum amount of ranges in one request. Requests for more get the whole file. */
+	private static final int MAX_RANGES = 32;
+	/** Ranges for a request that no range of the file can satisfy. */
+	private static final long[] UNSATISFIABLE = new long[0];
+
+	private ByteRanges() {}
+
+	/**
+	 * Gets the entity tag for a file, made from its length and last-modified time.
+	 * @param length the file length in bytes.
+	 * @param lastModified the file's last-modified time in milliseconds since the Epoch.
+	 * @return the entity tag, with quotes.
+	 */
+	static String getETag(long length, long lastModified)
+	{
+		return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+	}
+
+	/**
+	 * Gets the byte ranges requested of a file.
+	 * Overlapping and adjacent ranges are combined, and the ranges are returned in file order.
+	 * @param request the HTTP request.
+	 * @param etag the file's current entity tag, or null if none.
+	 * @param lastModified the file's last-modified time in milliseconds since the Epoch.
+	 * @param length the file length in bytes.
+	 * @return the ranges as pairs of first and last byte positions (inclusive),
+	 * 		an empty array if none of the ranges are satisfiable,
+	 * 		or null if the whole file should be sent (no ranges, a failed "If-Range", or a malformed "Range" header).
+	 */
+	static long[] fromRequest(HttpServletRequest request, String etag, long lastModified, long length)
+	{
+		String method = request.getMethod();
+		if (!"GET".equals(method) && !"HEAD".equals(method))
+			return null;
+		
+		String range = request.getHeader("Range");
+		if (range == null)
+			return null;
+		
+		String ifRange = request.getHeader("If-Range");
+		if (ifRange != null && !ifRangeMatches(request, ifRange, etag, lastModified))
+			return null;
+		
+		return parse(range, length);
+	}
+
+	/**
+	 * Checks an "If-Range" value, which is either an entity tag (strong comparison) or a date (exact match, to the second).
+	 */
+	private static boolean ifRangeMatches(HttpServletRequest request, String ifRange, String etag, long lastModified)
+	{
+		ifRange = ifRange.trim();
+		if (ifRange.startsWith("W/"))
+			return false;
+		else if (ifRange.startsWith("\""))
+			return etag != null && !etag.startsWith("W/") && etag.equals(ifRange);
+
+		long date;
+		try {
+			date = request.getDateHeader("If-Range");
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+		return date >= 0 && date / 1000L == lastModified / 1000L;
+	}
+
+	/**
+	 * Parses a "Range" header value.
+	 * @param range the header value.
+	 * @param length the file length in bytes.
+	 * @return the ranges, an empty array if none are satisfiable, or null if malformed.
+	 * @see #fromRequest(HttpServletRequest, String, long, long)
+	 */
+	static long[] parse(String range, long length)
+	{
+		range = range.trim();
+		if (!range.regionMatches(true, 0, BYTES_PREFIX, 0, BYTES_PREFIX.length()))
+			return null;
+		
+		String[] specs = range.substring(BYTES_PREFIX.length()).split(",");
+		if (specs.length > MAX_RANGES)
+			return null;
+		
+		long[] out = new long[specs.length * 2];
+		int count = 0;
+		boolean found = false;
+		for (String spec : specs)
+		{
+			spec = spec.trim();
+			if (spec.isEmpty())
+				continue;
+			found = true;
+
+			int dash = spec.indexOf('-');
+			if (dash < 0)
+				return null;
+			
+			long first, last;
+			try {
+				if (dash == 0) // suffix
+				{
+					long suffix = parsePosition(spec.substring(1));
+					first = Math.max(0L, length - suffix);
+					last = suffix > 0 ? length - 1 : -1L; 
+				}
+				else
+				{
+					first = parsePosition(spec.substring(0, dash));
+					last = dash == spec.length() - 1 ? Long.MAX_VALUE : parsePosition(spec.substring(dash + 1));
+					if (last < first)
+						return null;
+					last = Math.min(last, length - 1);
+				}
+			} catch (NumberFormatException e) {
+				return null;
+			}
+			
+			// Unsatisfiable ranges are skipped.
+			if (first < length && first <= last)
+			{
+				out[count++] = first;
+				out[count++] = last;
+			}
+		}
+		
+		if (!found)
+			return null;
+		else if (count == 0)
+			return UNSATISFIABLE;
+		else
+			return coalesce(out, count);
+	}
+
+	/**
+	 * Parses a byte position, which is only digits.
+	 */
+	private static long parsePosition(String value)
+	{
+		if (value.isEmpty() || value.charAt(0) == '+' || value.charAt(0) == '-')
+			throw new NumberFormatException("Bad position: " + value);
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			// All digits, but too long.
+			for (int i = 0; i < value.length(); i++)
+				if (!Character.isDigit(value.charAt(i)))
+					throw e;
+			return Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Sorts ranges and combines the ones that overlap or touch.
+	 */
+	private static long[] coalesce(long[] ranges, int count)
+	{
+		int pairs = count / 2;
+		if (pairs == 1)
+			return Arrays.copyOf(ranges, 2);
+		
+		long[][] sorted = new long[pairs][];
+		for (int i = 0; i < pairs; i++)
+			sorted[i] = new long[]{ranges[i * 2], ranges[i * 2 + 1]};
+		Arrays.sort(sorted, (a, b) -> Long.compare(a[0], b[0]));
+
+		long[] out = new long[count];
+		int n = 0;
+		for (long[] range : sorted)
+		{
+			if (n > 0 && range[0] <= out[n - 1] + 1)
+			{
+				out[n - 1] = Math.max(out[n - 1], range[1]);
+			}
+			else
+			{
+				out[n++] = range[0];
+				out[n++] = range[1];
+			}
+		}
+		return Arrays.copyOf(out, n);
+	}
+
+}
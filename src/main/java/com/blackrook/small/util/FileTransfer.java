@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2020-2022 Black Rook Software
+ * This program and the accompanying materials are made available under the 
+ * terms of the GNU Lesser Public License v2.1 which accompanies this 
+ * distribution, and is available at 
+ * http://www.gnu.org/licenses/old-licenses/lgpl-2.1.html
+ ******************************************************************************/
+package com.blackrook.small.util;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends file contents to output streams through pooled buffers, with positional reads.
+ * <p>If the output stream is also a {@link WritableByteChannel} (some containers' are), file data is read into
+ * direct buffers and written to the channel, so it is never copied to the heap.
+ * Otherwise, it is read into heap buffers and written to the stream.
+ * Small files that never change can also be memory-mapped, and the mappings kept for later sends.
+ * <p>A kept mapping is only replaced if the file's length or last-modified time changes, and is never unmapped
+ * until it is collected, so files that are mapped should not be changed in place, truncated, or deleted while
+ * the application runs (a truncated mapped file can crash the JVM when sent, and a mapped file cannot be deleted on some operating systems).
+ * @author Matthew Tropiano
+ */
+final class FileTransfer
+{
+	/** Size of each pooled buffer. */
+	private static final int BUFFER_SIZE = 32768;
+	/** Maximum amount of pooled buffers kept. */
+	private static final int MAX_POOLED_BUFFERS = 64;
+	/** Maximum amount of mapped files kept. */
+	private static final int MAX_MAPPED_FILES = 64;
+
+	/** Pooled direct buffers, for writing to channels. */
+	private static final BufferPool DIRECT_BUFFERS = new BufferPool();
+	/** Pooled heap buffers, for writing to streams. */
+	private static final BufferPool HEAP_BUFFERS = new BufferPool();
+	/** Mapped files, least-recently-used first. */
+	private static final Map<File, MappedFile> MAPPED_FILES = new LinkedHashMap<File, MappedFile>(16, 0.75f, true)
+	{
+		private static final long serialVersionUID = 6097542218307461236L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<File, MappedFile> eldest)
+		{
+			return size() > MAX_MAPPED_FILES;
+		}
+	};
+
+	private FileTransfer() {}
+
+	/**
+	 * A pool of buffers.
+	 */
+	private static class BufferPool
+	{
+		private Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+		/** Amount of buffers in the pool (the queue's size is not constant-time). */
+		private AtomicInteger size = new AtomicInteger(0);
+	}
+
+	/**
+	 * A mapped file, plus what it looked like when it was mapped.
+	 */
+	private static class MappedFile
+	{
+		private long lastModified;
+		private long length;
+		private ByteBuffer buffer;
+		
+		private MappedFile(long lastModified, long length, ByteBuffer buffer)
+		{
+			this.lastModified = lastModified;
+			this.length = length;
+			this.buffer = buffer;
+		}
+	}
+	
+	/**
+	 * Sends the remaining contents of a file mapping.
+	 * @param mapping the mapping, from {@link #map(File)}.
+	 * @param out the output stream to send to.
+	 * @throws IOException if a write error occurs.
+	 */
+	static void send(ByteBuffer mapping, OutputStream out) throws IOException
+	{
+		if (out instanceof WritableByteChannel)
+		{
+			while (mapping.hasRemaining())
+				((WritableByteChannel)out).write(mapping);
+		}
+		else
+		{
+			ByteBuffer buffer = acquireBuffer(false);
+			try {
+				int n;
+				while ((n = Math.min(mapping.remaining(), BUFFER_SIZE)) > 0)
+				{
+					mapping.get(buffer.array(), buffer.arrayOffset(), n);
+					out.write(buffer.array(), buffer.arrayOffset(), n);
+				}
+			} finally {
+				releaseBuffer(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Sends part of a file channel's contents, without changing the channel's position.
+	 * @param in the file channel.
+	 * @param position the starting position in the file.
+	 * @param length the amount of bytes to send.
+	 * @param out the output stream to send to.
+	 * @throws IOException if a read or write error occurs, or the file ends before <code>length</code> bytes are sent.
+	 */
+	static void transfer(FileChannel in, long position, long length, OutputStream out) throws IOException
+	{
+		boolean channelOutput = out instanceof WritableByteChannel;
+		ByteBuffer buffer = acquireBuffer(channelOutput);
+		try {
+			int n;
+			while (length > 0)
+			{
+				buffer.clear();
+				if (length < BUFFER_SIZE)
+					buffer.limit((int)length);
+				if ((n = in.read(buffer, position)) < 0)
+					throw new EOFException("File ended with " + length + " bytes left to send.");
+				buffer.flip();
+				if (channelOutput)
+				{
+					while (buffer.hasRemaining())
+						((WritableByteChannel)out).write(buffer);
+				}
+				else
+				{
+					out.write(buffer.array(), buffer.arrayOffset(), n);
+				}
+				position += n;
+				length -= n;
+			}
+		} finally {
+			releaseBuffer(buffer);
+		}
+	}
+
+	/**
+	 * Gets the mapping of a file, mapping it if it is not mapped or changed since it was mapped.
+	 * The file should not change while the application runs - see the class description.
+	 * The amount of bytes to send is the returned buffer's remaining bytes, which is not always the file's current length.
+	 * @param file the file.
+	 * @return a new buffer of the mapped file's contents (independent position and limit).
+	 * @throws IOException if the file cannot be opened or mapped.
+	 */
+	static ByteBuffer map(File file) throws IOException
+	{
+		File key = file.getAbsoluteFile();
+		long lastModified = key.lastModified();
+		long length = key.length();
+
+		MappedFile mappedFile;
+		synchronized (MAPPED_FILES)
+		{
+			mappedFile = MAPPED_FILES.get(key);
+		}
+		
+		if (mappedFile == null || mappedFile.lastModified != lastModified || mappedFile.length != length)
+		{
+			MappedByteBuffer buffer;
+			try (FileChannel in = FileChannel.open(key.toPath(), StandardOpenOption.READ))
+			{
+				buffer = in.map(FileChannel.MapMode.READ_ONLY, 0L, in.size());
+			}
+			mappedFile = new MappedFile(lastModified, length, buffer);
+			synchronized (MAPPED_FILES)
+			{
+				MAPPED_FILES.put(key, mappedFile);
+			}
+		}
+		return mappedFile.buffer.duplicate();
+	}
+
+	/**
+	 * @param direct if true, get a direct buffer, if false, get a heap buffer.
+	 * @return a cleared buffer from the pool, or a new one if the pool is empty.
+	 */
+	private static ByteBuffer acquireBuffer(boolean direct)
+	{
+		BufferPool pool = direct ? DIRECT_BUFFERS : HEAP_BUFFERS;
+		ByteBuffer out;
+		if ((out = pool.buffers.poll()) != null)
+		{
+			pool.size.decrementAndGet();
+			out.clear();
+			return out;
+		}
+		return direct ? ByteBuffer.allocateDirect(BUFFER_SIZE) : ByteBuffer.allocate(BUFFER_SIZE);
+	}
+
+	/**
+	 * Returns a buffer to its pool, if the pool is not full.
+	 * @param buffer the buffer.
+	 */
+	private static void releaseBuffer(ByteBuffer buffer)
+	{
+		BufferPool pool = buffer.isDirect() ? DIRECT_BUFFERS : HEAP_BUFFERS;
+		if (pool.size.incrementAndGet() <= MAX_POOLED_BUFFERS)
+			pool.buffers.offer(buffer);
+		else
+			pool.size.decrementAndGet();
+	}
+
+}
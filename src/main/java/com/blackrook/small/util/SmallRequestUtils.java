@@ -33,12 +33,14 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 
 import com.blackrook.small.SmallConstants;
+import com.blackrook.small.SmallRequestContext;
 import com.blackrook.small.SmallResponse;
 import com.blackrook.small.exception.SmallFrameworkException;
 import com.blackrook.small.exception.request.BeanCreationException;
 import com.blackrook.small.multipart.MultipartFormDataParser;
 import com.blackrook.small.multipart.MultipartParser;
 import com.blackrook.small.parser.RFCParser;
+import com.blackrook.small.struct.RequestURI;
 import com.blackrook.small.struct.Utils;
 import com.blackrook.small.struct.TypeProfileFactory.Profile;
 import com.blackrook.small.struct.TypeProfileFactory.Profile.FieldInfo;
@@ -99,63 +101,59 @@ public final class SmallRequestUtils
 			return null;
 	}
 
+	/**
+	 * Gets the parsed request URI for a request.
+	 * The URI is parsed once and stored on the request, and parsed again only if the request's URI changes.
+	 * @param request the request.
+	 * @return the parsed request URI.
+	 * @since 1.7.0
+	 */
+	public static RequestURI getRequestURI(HttpServletRequest request)
+	{
+		String uri = request.getRequestURI();
+		Object attrib = request.getAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_REQUEST_URI);
+		if (attrib instanceof RequestURI)
+		{
+			RequestURI out = (RequestURI)attrib;
+			if (out.getURI() == uri || out.getURI().equals(uri))
+				return out;
+		}
+		RequestURI out = new RequestURI(uri, request.getQueryString());
+		request.setAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_REQUEST_URI, out);
+		return out;
+	}
+
 	/**
 	 * Get the path parsed out of the request URI.
 	 * @param request the request.
 	 * @return the path string.
+	 * @see #getRequestURI(HttpServletRequest)
 	 */
 	public static String getPath(HttpServletRequest request)
 	{
-		String requestURI = request.getRequestURI();
-		int extIndex = requestURI.lastIndexOf('.');
-		int endIndex = requestURI.indexOf('?');
-		
-		if (extIndex >= 0)
-			return requestURI.substring(0, extIndex);
-		if (endIndex >= 0)
-			return requestURI.substring(0, endIndex);
-		
-		return requestURI;
+		return getRequestURI(request).getPath();
 	}
 
 	/**
 	 * Get the path file extension parsed out of the request URI (includes the dot).
 	 * @param request the request.
 	 * @return the path extension string or the empty string if none exists.
+	 * @see #getRequestURI(HttpServletRequest)
 	 */
 	public static String getPathExtension(HttpServletRequest request)
 	{
-		String requestURI = request.getRequestURI();
-		int extIndex = requestURI.lastIndexOf('.');
-		int endIndex = requestURI.indexOf('?');
-		
-		if (extIndex >= 0)
-		{
-			if (endIndex >= 0)
-				return requestURI.substring(extIndex, endIndex);
-			else
-				return requestURI.substring(extIndex);
-		}
-		else
-		{
-			return "";
-		}
+		return getRequestURI(request).getPathExtension();
 	}
 
 	/**
 	 * Get the base file name parsed out of the request URI.
 	 * @param request the request.
 	 * @return the page.
+	 * @see #getRequestURI(HttpServletRequest)
 	 */
 	public static String getFileName(HttpServletRequest request)
 	{
-		String requestURI = request.getRequestURI();
-		int slashIndex = requestURI.lastIndexOf('/');
-		int endIndex = requestURI.indexOf('?');
-		if (endIndex >= 0)
-			return requestURI.substring(slashIndex + 1, endIndex);
-		else
-			return requestURI.substring(slashIndex + 1); 
+		return getRequestURI(request).getFileName();
 	}
 
 	/**
@@ -170,6 +168,17 @@ public final class SmallRequestUtils
 		return session != null ? session.getId() : null;	
 	}
 
+	/**
+	 * Gets the request context for a request that the dispatcher servlet is handling.
+	 * @param request servlet request object.
+	 * @return the request context, if any. Can be null.
+	 * @since 1.7.0
+	 */
+	public static SmallRequestContext getRequestContext(HttpServletRequest request)
+	{
+		return (SmallRequestContext)request.getAttribute(SmallConstants.SMALL_REQUEST_ATTRIBUTE_CONTEXT);
+	}
+
 	/**
 	 * Convenience method that gets the SmallResponse on the request.
 	 * @param request servlet request object.
@@ -9,11 +9,17 @@ package com.blackrook.small.util;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.blackrook.small.exception.SmallFrameworkException;
@@ -26,6 +32,7 @@ import com.blackrook.small.struct.Utils;
 public final class SmallResponseUtils
 {
 	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final Charset ASCII = Charset.forName("US-ASCII");
 	
 	private SmallResponseUtils() {}
 
@@ -99,13 +106,147 @@ public final class SmallResponseUtils
 	 */
 	public static void sendFileContents(HttpServletResponse response, String mimeType, String attachmentFileName, String encoding, File file)
 	{
-		try (FileInputStream fis = new FileInputStream(file)) {
-			sendData(response, mimeType, attachmentFileName, encoding, fis, file.length());
+		sendFileContents(response, mimeType, attachmentFileName, encoding, file, false);
+	}
+
+	/**
+	 * Sends the contents of a file to the client.
+	 * The file is read through pooled buffers, which are direct buffers if the container's output stream 
+	 * is also a {@link WritableByteChannel}, so that the data is not copied to the heap.
+	 * <ul>
+	 * <li>The "Content-Type" portion of the header is set to <code>mimeType</code>, if not null.</li>
+	 * <li>The "Content-Encoding" portion of the header is set to <code>encoding</code>, if not null.</li>
+	 * <li>The "Content-Disposition" portion of the header is set to <code>"attachment; filename=\"" + attachmentFileName + "\""</code>, if not null.</li>
+	 * <li>The "Content-Length" portion of the header is set to the file's length in bytes.</li>
+	 * </ul>
+	 * @param response servlet response object.
+	 * @param mimeType the MIME-Type of the stream. If null, no type is set.
+	 * @param attachmentFileName the file name. If null, not sent as an attachment.
+	 * @param encoding if not null, adds a "Content-Encoding" header (not to be confused with charset - that should be set on the MIME-Type).
+	 * @param file the file content to send.
+	 * @param mapped if true, the file is memory-mapped, and the mapping is kept for later sends of the same file.
+	 * 		Only for small files that are sent often and never changed or deleted while the application runs:
+	 * 		a mapping is only replaced if the file's length or last-modified time changes, and is not released when the file is.
+	 * @since 1.7.0
+	 */
+	public static void sendFileContents(HttpServletResponse response, String mimeType, String attachmentFileName, String encoding, File file, boolean mapped)
+	{
+		try {
+			if (mapped)
+			{
+				ByteBuffer mapping = FileTransfer.map(file);
+				setDataHeaders(response, mimeType, attachmentFileName, encoding, (long)mapping.remaining());
+				FileTransfer.send(mapping, response.getOutputStream());
+			}
+			else try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+			{
+				long length = in.size();
+				setDataHeaders(response, mimeType, attachmentFileName, encoding, length);
+				FileTransfer.transfer(in, 0L, length, response.getOutputStream());
+			}
+		} catch (IOException e) {
+			throw new SmallFrameworkException(e);
+		}
+	}
+
+	/**
+	 * Sends the contents of a file to the client, or only the parts of it in the request's "Range" header.
+	 * Ranges are only sent if the response status is 200 (OK), and the request's "If-Range" header, if any,
+	 * matches the file's entity tag or last-modified time.
+	 * <ul>
+	 * <li>The "Accept-Ranges" portion of the header is set to <code>bytes</code>.</li>
+	 * <li>The "Last-Modified" portion of the header is set to the file's last-modified time, if not already set.</li>
+	 * <li>The "ETag" portion of the header is set to a tag made from the file's length and last-modified time, if not already set.</li>
+	 * <li>For one range, the status is set to 206 (Partial Content), with the range in the "Content-Range" portion of the header, and the "Content-Type" portion set to <code>mimeType</code>, if not null.</li>
+	 * <li>For more than one range, the status is set to 206 (Partial Content), and the ranges are sent as <code>multipart/byteranges</code>.</li>
+	 * <li>If no range can be satisfied, the status is set to 416 (Range Not Satisfiable), and nothing is sent.</li>
+	 * </ul>
+	 * @param request the HTTP request object.
+	 * @param response servlet response object.
+	 * @param mimeType the MIME-Type of the file. If null, no type is set.
+	 * @param file the file content to send.
+	 * @param mapped if true, the whole file is memory-mapped, and the mapping is kept for later sends of the same file
+	 * 		(see {@link #sendFileContents(HttpServletResponse, String, String, String, File, boolean)} for when to use this).
+	 * 		Ranges are always read from the file.
+	 * @see #sendFileContents(HttpServletResponse, String, String, String, File, boolean)
+	 * @since 1.7.0
+	 */
+	public static void sendFileContents(HttpServletRequest request, HttpServletResponse response, String mimeType, File file, boolean mapped)
+	{
+		long length = file.length();
+		long lastModified = file.lastModified();
+		response.setHeader("Accept-Ranges", "bytes");
+		if (!response.containsHeader("Last-Modified"))
+			response.setDateHeader("Last-Modified", lastModified);
+		if (!response.containsHeader("ETag"))
+			response.setHeader("ETag", ByteRanges.getETag(length, lastModified));
+		
+		long[] ranges = response.getStatus() == HttpServletResponse.SC_OK 
+			? ByteRanges.fromRequest(request, response.getHeader("ETag"), lastModified, length)
+			: null;
+		
+		if (ranges == null)
+		{
+			sendFileContents(response, mimeType, null, null, file, mapped);
+		}
+		else if (ranges.length == 0)
+		{
+			response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+			response.setHeader("Content-Range", "bytes */" + length);
+			response.setHeader("Content-Length", "0");
+		}
+		else try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			if (ranges.length == 2)
+			{
+				setDataHeaders(response, mimeType, null, null, ranges[1] - ranges[0] + 1);
+				response.setHeader("Content-Range", "bytes " + ranges[0] + "-" + ranges[1] + "/" + length);
+				FileTransfer.transfer(in, ranges[0], ranges[1] - ranges[0] + 1, response.getOutputStream());
+			}
+			else
+			{
+				sendFileRanges(response, mimeType, in, ranges, length);
+			}
 		} catch (IOException e) {
 			throw new SmallFrameworkException(e);
 		}
 	}
 
+	/**
+	 * Sends many ranges of a file as <code>multipart/byteranges</code>.
+	 */
+	private static void sendFileRanges(HttpServletResponse response, String mimeType, FileChannel in, long[] ranges, long length) throws IOException
+	{
+		String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong()) + Long.toHexString(System.nanoTime());
+		
+		// Part headers include the line break that ends the previous part.
+		byte[][] partHeaders = new byte[ranges.length / 2][];
+		long contentLength = 0L;
+		for (int i = 0; i < ranges.length; i += 2)
+		{
+			StringBuilder sb = new StringBuilder();
+			sb.append("\r\n--").append(boundary).append("\r\n");
+			if (!Utils.isEmpty(mimeType))
+				sb.append("Content-Type: ").append(mimeType).append("\r\n");
+			sb.append("Content-Range: bytes ").append(ranges[i]).append('-').append(ranges[i + 1]).append('/').append(length).append("\r\n");
+			sb.append("\r\n");
+			partHeaders[i / 2] = sb.toString().getBytes(ASCII);
+			contentLength += partHeaders[i / 2].length + ranges[i + 1] - ranges[i] + 1;
+		}
+		byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(ASCII);
+		contentLength += end.length;
+		
+		setDataHeaders(response, "multipart/byteranges; boundary=" + boundary, null, null, contentLength);
+		OutputStream out = response.getOutputStream();
+		for (int i = 0; i < ranges.length; i += 2)
+		{
+			out.write(partHeaders[i / 2]);
+			FileTransfer.transfer(in, ranges[i], ranges[i + 1] - ranges[i] + 1, out);
+		}
+		out.write(end);
+	}
+
 	/**
 	 * Writes string data to the response as "text/plain".
 	 * <ul>
@@ -241,18 +382,7 @@ public final class SmallResponseUtils
 	 */
 	public static void sendData(HttpServletResponse response, String mimeType, String attachmentFileName, String encoding, InputStream inStream, Long length)
 	{
-		if (!Utils.isEmpty(mimeType))
-			response.setHeader("Content-Type", mimeType);
-		if (!Utils.isEmpty(encoding))
-			response.setHeader("Content-Encoding", encoding);
-		if (!Utils.isEmpty(attachmentFileName))
-			response.setHeader("Content-Disposition", "attachment; filename=\"" + attachmentFileName + "\"");
-		
-		if (length != null && length >= 0)
-			response.setHeader("Content-Length", String.valueOf(length));
-		else
-			response.setBufferSize(32768);
-		
+		setDataHeaders(response, mimeType, attachmentFileName, encoding, length);
 		try {
 			
 			if (length != null) while (length > 0)
@@ -279,7 +409,25 @@ public final class SmallResponseUtils
 	}
 
 	/**
-	 * Forwards the client abruptly to another document or servlet (new client request). 
+	 * Sets the headers for sent data, or sets the buffer size for chunked data if no length.
+	 */
+	private static void setDataHeaders(HttpServletResponse response, String mimeType, String attachmentFileName, String encoding, Long length)
+	{
+		if (!Utils.isEmpty(mimeType))
+			response.setHeader("Content-Type", mimeType);
+		if (!Utils.isEmpty(encoding))
+			response.setHeader("Content-Encoding", encoding);
+		if (!Utils.isEmpty(attachmentFileName))
+			response.setHeader("Content-Disposition", "attachment; filename=\"" + attachmentFileName + "\"");
+		
+		if (length != null && length >= 0)
+			response.setHeader("Content-Length", String.valueOf(length));
+		else
+			response.setBufferSize(32768);
+	}
+
+	/**
+	 * Forwards the client abruptly to another document or servlet (new client request).  
 	 * @param response servlet response object.
 	 * @param url the target URL.
 	 * @see HttpServletResponse#sendRedirect(String)
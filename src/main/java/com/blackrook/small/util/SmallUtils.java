@@ -7,19 +7,20 @@
  ******************************************************************************/
 package com.blackrook.small.util;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Random;
+import java.util.stream.Stream;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
@@ -32,6 +33,7 @@ import com.blackrook.small.SmallConfiguration;
 import com.blackrook.small.SmallConstants;
 import com.blackrook.small.SmallEnvironment;
 import com.blackrook.small.SmallModelView;
+import com.blackrook.small.SmallRequestContext;
 import com.blackrook.small.SmallResponse;
 import com.blackrook.small.exception.request.BeanCreationException;
 import com.blackrook.small.exception.request.NoConverterException;
@@ -40,6 +42,7 @@ import com.blackrook.small.exception.request.NotFoundException;
 import com.blackrook.small.exception.views.ViewProcessingException;
 import com.blackrook.small.roles.JSONDriver;
 import com.blackrook.small.roles.MIMETypeDriver;
+import com.blackrook.small.roles.ResponseWriter;
 import com.blackrook.small.roles.XMLDriver;
 import com.blackrook.small.struct.Utils;
 
@@ -801,6 +804,40 @@ public final class SmallUtils
 		return session.getAttribute(attribName) != null;
 	}
 
+	/** Locked to add a session mutex to a session that does not have one. */
+	private static final Object SESSION_MUTEX_LOCK = new Object();
+	
+	/**
+	 * A session mutex.
+	 */
+	private static final class SessionMutex implements Serializable
+	{
+		private static final long serialVersionUID = 2714946553398357040L;
+	}
+	
+	/**
+	 * Gets the object to lock on for a session, so that only one request at a time does something per session.
+	 * This is stored on the session as an attribute, so it is the same object for every request in the session, 
+	 * even if the container returns a different session object on each request.
+	 * It is added to new sessions when they are created, or on first use, if not.
+	 * @param session the session.
+	 * @return the session mutex.
+	 * @see SmallConstants#SMALL_SESSION_ATTRIBUTE_MUTEX
+	 * @since 1.7.0
+	 */
+	public static Object getSessionMutex(HttpSession session)
+	{
+		Object out;
+		if ((out = session.getAttribute(SmallConstants.SMALL_SESSION_ATTRIBUTE_MUTEX)) != null)
+			return out;
+		synchronized (SESSION_MUTEX_LOCK)
+		{
+			if ((out = session.getAttribute(SmallConstants.SMALL_SESSION_ATTRIBUTE_MUTEX)) == null)
+				session.setAttribute(SmallConstants.SMALL_SESSION_ATTRIBUTE_MUTEX, out = new SessionMutex());
+		}
+		return out;
+	}
+
 	/**
 	 * Convenience method that gets the Small Application Environment from WebSocket EndpointConfig.
 	 * @param config the endpoint config context.
@@ -840,7 +877,8 @@ public final class SmallUtils
 	 */
 	public static String getMIMEType(ServletContext context, String filename)
 	{
-		String type = getEnvironment(context).getMIMETypeDriver().getMIMEType(Utils.getFileExtension(filename));
+		SmallEnvironment environment = getEnvironment(context);
+		String type = environment != null ? environment.getMIMETypeDriver().getMIMEType(Utils.getFileExtension(filename)) : null;
 		return type != null ? type : "application/octet-stream";
 	}
 
@@ -1094,14 +1132,17 @@ public final class SmallUtils
 	 * <ul>
 	 * <li>If content class is a {@link SmallResponse}, its content is the object to convert (other headers and statuses are set on the response), and conversion continues below for the content...</li>
 	 * <li>If content class is a {@link SmallModelView}, the view is resolved and written to the response.</li>
+	 * <li>If a {@link ResponseWriter} component writes the content class (or a superclass or interface of it), it writes the content to the response.</li>
 	 * <li>If content class is a {@link File}, 
 	 * 		<ul>
 	 * 			<li>...the content type is changed to the file's predicted MIME-type and the content is the file's content, verbatim. Unknown type is <code>application/octet-stream</code>.</li> 
 	 * 			<li>...and does not exist, a NotFoundException is thrown.</li> 
+	 * 			<li>...and the request has a "Range" header, only the requested ranges are sent (see {@link SmallResponseUtils#sendFileContents(HttpServletRequest, HttpServletResponse, String, File, boolean)}).</li> 
 	 * 		</ul>
 	 * </li>
 	 * <li>If content class is a {@link Reader}, {@link CharSequence}, {@link String}, {@link StringBuilder}, or {@link StringBuffer}, plain text is sent back. Content type is <code>text/plain</code> if unspecified.</li>
 	 * <li>If content class is byte[] or {@link ByteBuffer} binary data is sent back. Content type is <code>application/octet-stream</code> if unspecified.</li>
+	 * <li>If content class is a {@link Path}, {@link InputStream}, {@link ReadableByteChannel}, or {@link Stream}, or an {@link Iterable} not sent as JSON or XML, its data is sent back.</li>
 	 * <li>If content class is any other object type,
 	 * 		<ul>
 	 * 			<li>...and a {@link XMLDriver} component is found, and the specified content type is <code>application/xml</code> or an XML subtype, the object is converted to XML.</li>
@@ -1119,9 +1160,43 @@ public final class SmallUtils
 	 * @throws NoConverterException if the output object type could not be exported or converted to a suitable format.
 	 * @throws IOException if an I/O error occurs.
 	 * @since 1.1.0
+	 * @see #sendContent(SmallRequestContext, String, Object)
 	 */
 	public static void sendContent(HttpServletRequest request, HttpServletResponse response, String attachmentFileName, Object content) 
 		throws NotFoundException, NoViewDriverException, ViewProcessingException, NoConverterException, IOException
+	{
+		SmallRequestContext context = SmallRequestUtils.getRequestContext(request);
+		sendContent(context != null ? context.getEnvironment() : getEnvironment(request.getServletContext()), request, response, attachmentFileName, content);
+	}
+	
+	/**
+	 * Writes a content object to the client, on the current request and response of a request context, 
+	 * using the response writers and drivers of its environment.
+	 * <p>This is the same as {@link #sendContent(HttpServletRequest, HttpServletResponse, String, Object)},
+	 * without looking up the environment.
+	 * If the context has no environment, only the built-in response writers are used, and objects cannot be converted to JSON or XML.
+	 * @param context the request context.
+	 * @param attachmentFileName the name of the data to send (file name). If null, not sent as an attachment.
+	 * @param content the object to write.
+	 * @throws NotFoundException if a file is the content, and it was not found, or it's a directory.
+	 * @throws NoViewDriverException if a suitable handler was not found nor invoked.
+	 * @throws ViewProcessingException if an error occurs on view processing of any kind.
+	 * @throws NoConverterException if the output object type could not be exported or converted to a suitable format.
+	 * @throws IOException if an I/O error occurs.
+	 * @since 1.7.0
+	 */
+	public static void sendContent(SmallRequestContext context, String attachmentFileName, Object content) 
+		throws NotFoundException, NoViewDriverException, ViewProcessingException, NoConverterException, IOException
+	{
+		sendContent(context.getEnvironment(), context.getRequest(), context.getResponse(), attachmentFileName, content);
+	}
+	
+	/**
+	 * Writes a content object to the client, using the response writers and drivers of an environment.
+	 * @param environment the application environment. Can be null.
+	 */
+	private static void sendContent(SmallEnvironment environment, HttpServletRequest request, HttpServletResponse response, String attachmentFileName, Object content) 
+		throws NotFoundException, NoViewDriverException, ViewProcessingException, NoConverterException, IOException
 	{
 		SmallResponse smallResponse = encapsulateResponseContent(content);
 		content = smallResponse.getContent();
@@ -1129,13 +1204,7 @@ public final class SmallUtils
 
 		// Set default headers by SmallResponse.
 		response.setStatus(smallResponse.getStatus());
-		for (Map.Entry<String, List<String>> entry : smallResponse.getHeaders().entrySet())
-		{
-			String header = entry.getKey();
-			Iterable<String> values = entry.getValue();
-			for (String v : values)
-				response.addHeader(header, v);
-		}
+		smallResponse.forEachHeader(response::addHeader);
 
 		// attachment filename override
 		if (attachmentFileName != null)
@@ -1164,73 +1233,15 @@ public final class SmallUtils
 				SmallUtils.handleView(request, response, model, viewName);
 			}
 		}
-		// File output.
-		else if (File.class.isAssignableFrom(returnType))
-		{
-			File outFile = (File)content;
-			if (outFile == null || !outFile.exists())
-				throw new NotFoundException("File not found.");
-			else if (outFile.isDirectory())
-				throw new NotFoundException("File not found.");
-			else
-			{
-				SmallResponseUtils.sendFileContents(
-					response, 
-					mimeType != null ? mimeType : getMIMEType(request.getServletContext(), outFile.getName()), 
-					outFile
-				);
-			}
-		}
-		// StringBuffer data output.
-		else if (StringBuffer.class.isAssignableFrom(returnType))
-		{
-			SmallResponseUtils.sendStringData(
-				response, 
-				mimeType != null ? mimeType : "text/plain", 
-				((StringBuffer)content).toString()
-			);
-		}
-		// StringBuilder data output.
-		else if (StringBuilder.class.isAssignableFrom(returnType))
+		// Content with a response writer.
+		else if (writeContent(environment, request, response, mimeType, returnType, content))
 		{
-			SmallResponseUtils.sendStringData(
-				response, 
-				mimeType != null ? mimeType : "text/plain", 
-				((StringBuilder)content).toString()
-			);
-		}
-		// String data output.
-		else if (String.class.isAssignableFrom(returnType))
-		{
-			SmallResponseUtils.sendStringData(
-				response, 
-				mimeType != null ? mimeType : "text/plain", 
-				(String)content
-			);
-		}
-		// binary output.
-		else if (byte[].class.isAssignableFrom(returnType))
-		{
-			byte[] data = (byte[])content;
-			SmallResponseUtils.sendData(
-				response,
-				mimeType != null ? mimeType : "application/octet-stream", 
-				new ByteArrayInputStream(data), 
-				(long)data.length
-			);
-		}
-		// InputStream
-		else if (InputStream.class.isAssignableFrom(returnType))
-		{
-			try (InputStream inStream = (InputStream)content)
-			{
-				SmallResponseUtils.sendData(response, inStream);
-			}
+			// Written.
 		}
 		// Object output, XML.
 		else if (isXML(mimeType))
 		{
-			XMLDriver driver = getEnvironment(request.getServletContext()).getXMLDriver();
+			XMLDriver driver = environment != null ? environment.getXMLDriver() : null;
 			if (driver == null)
 				throw new NoConverterException("XML encoding not supported.");
 			response.setContentType("application/xml; charset=utf-8");
@@ -1239,7 +1250,7 @@ public final class SmallUtils
 		// Object output, JSON.
 		else if (isJSON(mimeType) || Utils.isEmpty(mimeType))
 		{
-			JSONDriver driver = getEnvironment(request.getServletContext()).getJSONDriver();
+			JSONDriver driver = environment != null ? environment.getJSONDriver() : null;
 			if (driver == null)
 				throw new NoConverterException("JSON encoding not supported.");
 			response.setContentType("application/json; charset=utf-8");
@@ -1250,5 +1261,21 @@ public final class SmallUtils
 			throw new NoConverterException("No suitable converter found for " + content.getClass());
 		}
 	}
+
+	/**
+	 * Writes content to the response using the response writer for its class, if any.
+	 * Uses the built-in writers if there is no environment.
+	 * @return true if written, false if not.
+	 */
+	@SuppressWarnings("unchecked")
+	private static boolean writeContent(SmallEnvironment environment, HttpServletRequest request, HttpServletResponse response, String mimeType, Class<?> contentClass, Object content) 
+		throws NotFoundException, NoConverterException, IOException
+	{
+		ResponseWriter<?> found = environment != null ? environment.getResponseWriter(contentClass) : null;
+		if (found == null)
+			found = SmallEnvironment.getDefaultResponseWriter(contentClass);
+		ResponseWriter<Object> writer = (ResponseWriter<Object>)found;
+		return writer != null && writer.writeContent(request, response, mimeType, content);
+	}
 	
 }